@@ -0,0 +1,42 @@
+package eu.delimata.bookstore.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs every benchmark single-threaded and at 4 threads (matching
+ * {@code cucumber.execution.parallel.config.fixed.parallelism=4}) with the GC profiler,
+ * so each result shows ops/s next to the allocation rate.
+ *
+ * <p>{@code -Dbookstore.jmh.include=<regex>} narrows the benchmarks;
+ * JSON results go to {@code build/reports/jmh}.</p>
+ */
+public final class BenchmarkRunner {
+
+    private static final int[] THREAD_COUNTS = {1, 4};
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("bookstore.jmh.include", BenchmarkRunner.class.getPackageName() + ".*");
+        File reportDir = new File(System.getProperty("bookstore.jmh.reportDir", "build/reports/jmh"));
+        reportDir.mkdirs();
+
+        for (int threads : THREAD_COUNTS) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(reportDir, "results-" + threads + "-threads.json").getPath());
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package eu.delimata.bookstore.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.delimata.bookstore.api.BookstoreJson;
+import eu.delimata.bookstore.api.PayloadTemplate;
+import eu.delimata.bookstore.model.Author;
+import eu.delimata.bookstore.model.Book;
+import eu.delimata.bookstore.stepdefinitions.builders.AuthorBuilder;
+import eu.delimata.bookstore.stepdefinitions.builders.BookBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost per call of Jackson (de)serialization of the {@link Book} and {@link Author} records,
+ * with a single shared mapper as RestAssured uses it, with the cached readers and writers of {@link BookstoreJson},
+ * and of rendering request bodies from a {@link PayloadTemplate}.
+ */
+public class SerializationBenchmark extends BenchmarkDefaults {
+
+    @State(Scope.Benchmark)
+    public static class Payloads {
+
+        final ObjectMapper mapper = new ObjectMapper();
+        Book book;
+        Author author;
+        byte[] bookJson;
+        byte[] authorJson;
+
+        @Setup
+        public void setUp() throws Exception {
+            book = BookBuilder.aBook().withId(1_000).buildRandom();
+            author = AuthorBuilder.anAuthor().withId(1_000).buildRandom();
+            bookJson = mapper.writeValueAsBytes(book);
+            authorJson = mapper.writeValueAsBytes(author);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeBook(Payloads payloads) throws Exception {
+        return payloads.mapper.writeValueAsBytes(payloads.book);
+    }
+
+    @Benchmark
+    public Book deserializeBook(Payloads payloads) throws Exception {
+        return payloads.mapper.readValue(payloads.bookJson, Book.class);
+    }
+
+    @Benchmark
+    public byte[] serializeBookCached(Payloads payloads) {
+        return BookstoreJson.write(payloads.book);
+    }
+
+    @Benchmark
+    public byte[] serializeBookTemplate(Payloads payloads) {
+        return PayloadTemplate.BOOK.write(payloads.book);
+    }
+
+    @Benchmark
+    public Book deserializeBookCached(Payloads payloads) {
+        return BookstoreJson.readBook(payloads.bookJson);
+    }
+
+    @Benchmark
+    public byte[] serializeAuthor(Payloads payloads) throws Exception {
+        return payloads.mapper.writeValueAsBytes(payloads.author);
+    }
+
+    @Benchmark
+    public Author deserializeAuthor(Payloads payloads) throws Exception {
+        return payloads.mapper.readValue(payloads.authorJson, Author.class);
+    }
+
+    @Benchmark
+    public byte[] serializeAuthorCached(Payloads payloads) {
+        return BookstoreJson.write(payloads.author);
+    }
+
+    @Benchmark
+    public byte[] serializeAuthorTemplate(Payloads payloads) {
+        return PayloadTemplate.AUTHOR.write(payloads.author);
+    }
+
+    @Benchmark
+    public Author deserializeAuthorCached(Payloads payloads) {
+        return BookstoreJson.readAuthor(payloads.authorJson);
+    }
+}
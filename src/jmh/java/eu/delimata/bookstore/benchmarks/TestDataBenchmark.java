@@ -0,0 +1,34 @@
+package eu.delimata.bookstore.benchmarks;
+
+import eu.delimata.bookstore.api.PayloadTemplate;
+import eu.delimata.bookstore.model.Book;
+import eu.delimata.bookstore.stepdefinitions.builders.BookBuilder;
+import eu.delimata.bookstore.stepdefinitions.builders.BookPayloadBuilder;
+import eu.delimata.bookstore.utils.TestData;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Cost per call of the client-side test-data generation used by the steps.
+ */
+public class TestDataBenchmark extends BenchmarkDefaults {
+
+    @Benchmark
+    public Book bookBuilderBuildRandom() {
+        return BookBuilder.aBook()
+                .withId(TestData.uniqueId())
+                .buildRandom();
+    }
+
+    @Benchmark
+    public String testDataRandomExcerpt() {
+        return TestData.randomExcerpt();
+    }
+
+    @Benchmark
+    public PayloadTemplate.Payload bookPayloadBuilderBuild() {
+        return BookPayloadBuilder.validPayload()
+                .withId(TestData.uniqueId())
+                .remove("title")
+                .build();
+    }
+}
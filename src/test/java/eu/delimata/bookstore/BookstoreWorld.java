@@ -14,7 +14,7 @@ import java.util.Map;
 
 @Getter
 @Setter
-public class BookstoreWorld {
+public final class BookstoreWorld {
 
     @Setter(AccessLevel.NONE)
     private final BooksApi booksApi = new BooksApi();
@@ -28,8 +28,14 @@ public class BookstoreWorld {
     private Author lastAuthorPayload;
 
     private Response lastResponse;
-    private long lastOperationMillis;
+    private volatile long lastOperationMillis;
 
     @Setter(AccessLevel.NONE)
     private final Map<String, Object> context = new HashMap<>();
+
+    public BookstoreWorld() {
+        // Registered once every field is set; the class is final, so no subclass can see a half-built world
+        booksApi.onResponseTime(this::setLastOperationMillis);
+        authorsApi.onResponseTime(this::setLastOperationMillis);
+    }
 }
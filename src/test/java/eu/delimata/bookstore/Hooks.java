@@ -1,25 +1,65 @@
 package eu.delimata.bookstore;
 
+import eu.delimata.bookstore.api.FixturePool;
+import eu.delimata.bookstore.api.HttpAttachmentFilter;
+import eu.delimata.bookstore.api.HttpTransport;
+import eu.delimata.bookstore.api.ReadCache;
+import eu.delimata.bookstore.api.ResilientReads;
+import eu.delimata.bookstore.api.ResourceJanitor;
+import eu.delimata.bookstore.api.ResponseSchemas;
+import eu.delimata.bookstore.metrics.EndpointLatencies;
+import eu.delimata.bookstore.parallel.ScenarioLimiter;
+import eu.delimata.bookstore.report.RunSummary;
+import eu.delimata.bookstore.soak.SoakRunner;
+import eu.delimata.bookstore.stub.BookstoreStubServer;
 import eu.delimata.bookstore.utils.AllureEnvironmentWriter;
+import eu.delimata.bookstore.utils.Config;
+import eu.delimata.bookstore.utils.IdAllocator;
+import eu.delimata.bookstore.utils.TestDataPool;
 import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.Before;
 import io.cucumber.java.BeforeAll;
 import io.cucumber.java.Scenario;
 import io.restassured.RestAssured;
 import io.restassured.config.LogConfig;
 import io.restassured.filter.log.LogDetail;
+import lombok.extern.slf4j.Slf4j;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 
+@Slf4j
 public class Hooks {
 
     private final BookstoreWorld world;
+    private boolean holdsScenarioSlot;
 
     public Hooks(BookstoreWorld world) {
         this.world = world;
     }
 
+    @BeforeAll(order = 0)
+    public static void startStubServer() {
+        if (BookstoreStubServer.isEnabled()) {
+            System.setProperty("baseUrl", BookstoreStubServer.start().baseUrl());
+        }
+    }
+
+    @BeforeAll(order = 1)
+    public static void startTestDataPool() {
+        TestDataPool.start();
+    }
+
+    // Fixtures are generated from the test data pool and created on the stub, so both must be up first
+    @BeforeAll(order = 2)
+    public static void startFixturePool() {
+        FixturePool.start();
+    }
+
     @BeforeAll
     public static void setAllureEnvironment() {
         final Properties properties = System.getProperties();
@@ -32,24 +72,124 @@ public class Hooks {
                         .enablePrettyPrinting(true));
     }
 
-    @After
-    public void cleanup(Scenario scenario) {
-        try {
-            if (world.getLastBookId() != null) {
-                world.getBooksApi().delete(world.getLastBookId());
-                world.setLastBookId(null);
-            }
-        } catch (Exception exception) {
-            scenario.log("Failed to delete book with id " + world.getLastBookId() + ": " + exception.getMessage());
-        }
-
-        try {
-            if (world.getLastAuthorId() != null) {
-                world.getAuthorsApi().delete(world.getLastAuthorId());
-                world.setLastAuthorId(null);
-            }
-        }  catch (Exception exception) {
-            scenario.log("Failed to delete author with id " + world.getLastAuthorId() + ": " + exception.getMessage());
+    @AfterAll
+    public static void reportScenarioParallelism() {
+        String timeline = ScenarioLimiter.timeline();
+        if (!timeline.isEmpty()) {
+            log.info("Scenario parallelism over time: {}", timeline);
+        }
+    }
+
+    @AfterAll
+    public static void reportHttpTransport() {
+        HttpTransport transport = HttpTransport.selected();
+        log.info("HTTP transport {}: {}", transport.name(), transport.stats());
+    }
+
+    // A soak reports the endpoints once, at its end, instead of after every pass
+    @AfterAll
+    public static void reportEndpointLatencies() {
+        if (SoakRunner.isRunning()) {
+            return;
+        }
+        String table = EndpointLatencies.table();
+        if (!table.isEmpty()) {
+            log.info("Endpoint latencies:\n{}", table);
+            String shard = Config.get("bookstore.shard", "SHARD", "").trim();
+            RunSummary.write(shard.isEmpty() ? "Endpoint latencies" : "Endpoint latencies, shard " + shard,
+                    new RunSummary.Content("Endpoint latencies", "text/plain", ".txt", table.getBytes(StandardCharsets.UTF_8)),
+                    new RunSummary.Content("endpoint-latency.json", "application/json", ".json", EndpointLatencies.json()));
+        }
+        EndpointLatencies.writeReport(Path.of(Config.get("bookstore.latency.report", "LATENCY_REPORT",
+                "build/reports/latency/endpoint-latency.json")));
+    }
+
+    @AfterAll
+    public static void reportHttpAttachments() {
+        if (Config.getBoolean("bookstore.report.http", "BOOKSTORE_REPORT_HTTP", true)) {
+            log.info("HTTP attachments: {}", HttpAttachmentFilter.stats());
+        }
+    }
+
+    @AfterAll
+    public static void reportResponseSchemas() {
+        if (ResponseSchemas.isEnabled()) {
+            log.info("Response schema validation: {}", ResponseSchemas.stats());
+        }
+    }
+
+    @AfterAll
+    public static void reportResilientReads() {
+        if (ResilientReads.isEnabled()) {
+            log.info("Hedged and retried reads: {}", ResilientReads.stats());
+        }
+    }
+
+    @AfterAll
+    public static void reportReadCache() {
+        if (ReadCache.isEnabled()) {
+            log.info("HTTP read cache: {}", ReadCache.stats());
         }
     }
+
+    @AfterAll
+    public static void reportFixturePool() {
+        FixturePool.stats().forEach(stats -> log.info("Fixture pool {}", stats));
+    }
+
+    @AfterAll
+    public static void reportIdAllocator() {
+        log.info("Test ids: {}", IdAllocator.stats());
+    }
+
+    @AfterAll
+    public static void reportTestDataPool() {
+        log.info("Test data pool: {}", TestDataPool.stats());
+    }
+
+    // After-all hooks run highest order first: sweep before the default-order reports, stop the stub last
+    @AfterAll(order = 20_000)
+    public static void sweepCreatedResources() {
+        ResourceJanitor.sweep();
+    }
+
+    // A soak keeps the fixtures and the stub for its next pass and stops them itself
+    @AfterAll(order = 20_000)
+    public static void deleteFixtures() {
+        if (!SoakRunner.isRunning()) {
+            FixturePool.stop();
+        }
+    }
+
+    @AfterAll(order = 0)
+    public static void stopStubServer() {
+        if (!SoakRunner.isRunning()) {
+            BookstoreStubServer.stop();
+        }
+    }
+
+    @Before(order = 0)
+    public void acquireScenarioSlot() {
+        holdsScenarioSlot = ScenarioLimiter.acquire();
+    }
+
+    // After hooks run highest order first, so the slot is given back once everything else has finished
+    @After(order = 0)
+    public void releaseScenarioSlot() {
+        if (holdsScenarioSlot) {
+            ScenarioLimiter.release();
+            holdsScenarioSlot = false;
+        }
+    }
+
+    @After
+    public void attachHeldHttpExchanges(Scenario scenario) {
+        world.getBooksApi().attachHeldExchanges(scenario.isFailed());
+        world.getAuthorsApi().attachHeldExchanges(scenario.isFailed());
+    }
+
+    @After
+    public void cleanup() {
+        ResourceJanitor.release(world.getBooksApi(), world.getAuthorsApi());
+    }
 }
\ No newline at end of file
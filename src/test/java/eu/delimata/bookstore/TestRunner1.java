@@ -1,11 +1,13 @@
 package eu.delimata.bookstore;
 
+import eu.delimata.bookstore.parallel.BookstoreCucumberEngine;
 import org.junit.platform.suite.api.*;
 
 import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
 
-@Suite
-@IncludeEngines("cucumber")
+// Impact selection (-Dbookstore.impact.select=true) may legitimately leave nothing to run
+@Suite(failIfNoTests = false)
+@IncludeEngines(BookstoreCucumberEngine.ENGINE_ID)
 @SelectClasspathResource("eu/delimata")
 @ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "eu.delimata")
 public class TestRunner1 {
@@ -0,0 +1,34 @@
+package eu.delimata.bookstore.api;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.RestAssuredConfig;
+
+/**
+ * RestAssured's built-in transport: Apache HttpClient 4 over the process-wide {@link SharedHttpClient} pool,
+ * with {@link PooledConnectionFilter} keeping requests well-behaved on it.
+ */
+final class ApacheHttpTransport implements HttpTransport {
+
+    static final ApacheHttpTransport INSTANCE = new ApacheHttpTransport();
+
+    private static final PooledConnectionFilter POOLED_CONNECTION_FILTER = new PooledConnectionFilter();
+
+    private ApacheHttpTransport() {
+    }
+
+    @Override
+    public String name() {
+        return "apache";
+    }
+
+    @Override
+    public void configure(RequestSpecBuilder builder, RestAssuredConfig config) {
+        builder.setConfig(config.httpClient(SharedHttpClient.httpClientConfig()))
+                .addFilter(POOLED_CONNECTION_FILTER);
+    }
+
+    @Override
+    public SharedHttpClient.ConnectionPoolStats stats() {
+        return SharedHttpClient.stats();
+    }
+}
@@ -4,39 +4,58 @@ import eu.delimata.bookstore.model.Author;
 import io.qameta.allure.Step;
 import io.restassured.response.Response;
 
+import java.util.List;
+
 import static eu.delimata.bookstore.enums.HttpCode.OK;
 
 public class AuthorsApi extends BaseApi {
 
-    private static final String AUTHORS = "/api/v1/Authors";
+    static final String AUTHORS = "/api/v1/Authors";
+
+    public AuthorsApi() {
+    }
+
+    AuthorsApi(String stubSession) {
+        super(stubSession);
+    }
 
     @Step
     public Response getAll() {
-        return givenSpec().get(AUTHORS);
+        return resilientGet(AUTHORS, () -> givenSpec().get(AUTHORS));
+    }
+
+    @Step
+    public boolean containsAuthor(int id) {
+        return listContains(AUTHORS, id);
     }
 
     @Step
     public Response getById(int id) {
-        return givenSpec().pathParam("id", id).get(AUTHORS + "/{id}");
+        return resilientGet(AUTHORS + "/{id}", () -> givenSpec().pathParam("id", id).get(AUTHORS + "/{id}"));
     }
 
     @Step
     public Response create(Object author) {
-        return givenSpec().body(author).post(AUTHORS);
+        return created(AUTHORS, author, givenSpec().body(BookstoreJson.write(author)).post(AUTHORS));
     }
 
     @Step
     public Response update(int id, Author author) {
-        return givenSpec().pathParam("id", id).body(author).put(AUTHORS + "/{id}");
+        return updated(AUTHORS, id, givenSpec().pathParam("id", id).body(BookstoreJson.write(author)).put(AUTHORS + "/{id}"));
     }
 
     @Step
     public Response delete(int id) {
-        return givenSpec().pathParam("id", id).delete(AUTHORS + "/{id}");
+        return deleted(AUTHORS, id, givenSpec().pathParam("id", id).delete(AUTHORS + "/{id}"));
     }
 
     @Step
     public Author getAuthorById(Integer id) {
-        return getById(id).then().statusCode(OK.toInt()).extract().as(Author.class);
+        return BookstoreJson.readAuthor(getById(id).then().statusCode(OK.toInt()).extract().asByteArray());
+    }
+
+    @Step
+    public List<Author> getAllAuthors() {
+        return BookstoreJson.readAuthors(getAll().then().statusCode(OK.toInt()).extract().asByteArray());
     }
 }
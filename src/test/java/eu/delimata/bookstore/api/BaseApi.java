@@ -1,37 +1,253 @@
 package eu.delimata.bookstore.api;
 
 
-import io.qameta.allure.restassured.AllureRestAssured;
+import eu.delimata.bookstore.model.Author;
+import eu.delimata.bookstore.model.Book;
+import eu.delimata.bookstore.stub.BookstoreStubServer;
+import eu.delimata.bookstore.support.JsonIdScanner;
+import eu.delimata.bookstore.utils.Config;
 import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
-import io.restassured.config.HttpClientConfig;
+import io.restassured.config.ObjectMapperConfig;
 import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+import static eu.delimata.bookstore.enums.HttpCode.OK;
 import static io.restassured.RestAssured.given;
 
 public abstract class BaseApi {
 
     protected final RequestSpecification spec;
+    private final String stubSession;
+    private final TimingFilter timingFilter;
+    private final HttpAttachmentFilter attachmentFilter = new HttpAttachmentFilter();
 
     protected BaseApi() {
+        // Each API instance (one per scenario) gets its own isolated view of the stub's data
+        this(UUID.randomUUID().toString(), true);
+    }
+
+    /**
+     * Client for work outside any scenario, e.g. the fixture pool. It attaches nothing, as no scenario would ever
+     * collect the exchanges.
+     *
+     * @param stubSession the stub session to send requests in, e.g. {@link BookstoreStubServer#SHARED_SESSION}
+     */
+    protected BaseApi(String stubSession) {
+        this(stubSession, false);
+    }
+
+    private BaseApi(String stubSession, boolean inScenario) {
+        this.stubSession = stubSession;
         String baseUrl = System.getProperty("baseUrl",
                 System.getenv().getOrDefault("BASE_URL", "https://fakerestapi.azurewebsites.net"));
-        this.spec = new RequestSpecBuilder()
+        boolean reportHttp = inScenario && Config.getBoolean("bookstore.report.http", "BOOKSTORE_REPORT_HTTP", true);
+        this.timingFilter = new TimingFilter();
+        RequestSpecBuilder builder = new RequestSpecBuilder()
                 .setBaseUri(baseUrl)
                 .setContentType(ContentType.JSON)
-                .addHeader("Accept", "application/json")
-                .setConfig(RestAssured.config()
-                        .httpClient(HttpClientConfig.httpClientConfig()
-                                .setParam("http.connection.timeout", 5_000)
-                                .setParam("http.socket.timeout", 10_000)))
-                .addFilter(new AllureRestAssured())
-                .log(LogDetail.URI)
-                .build();
+                .addHeader("Accept", "application/json");
+        if (ResponseSchemas.isEnabled()) {
+            // Outside the timing filter, so measured latencies do not include validation
+            builder.addFilter(ResponseSchemas.filter());
+        }
+        builder.addFilter(timingFilter);
+        if (ReadCache.isEnabled()) {
+            builder.addFilter(ReadCache.filter());
+        }
+        HttpTransport.selected().configure(builder, RestAssured.config()
+                .objectMapperConfig(ObjectMapperConfig.objectMapperConfig().defaultObjectMapper(BookstoreJson.restAssuredMapper())));
+        if (reportHttp) {
+            builder.addFilter(attachmentFilter)
+                    .log(LogDetail.URI);
+        }
+        if (BookstoreStubServer.isRunning()) {
+            builder.addHeader(BookstoreStubServer.SESSION_HEADER, stubSession);
+        }
+        this.spec = builder.build();
+    }
+
+    /**
+     * Registers a callback that receives the latency of every request sent by this instance, in milliseconds.
+     *
+     * @param listener latency callback
+     */
+    public void onResponseTime(LongConsumer listener) {
+        timingFilter.setListener(listener);
+    }
+
+    /**
+     * Hands the request/response pairs held back by the attachment policy ({@code bookstore.report.http.attach=failures})
+     * to the Allure report when the scenario failed, or to sampling when it passed.
+     *
+     * @param scenarioFailed whether the scenario that sent them failed
+     */
+    public void attachHeldExchanges(boolean scenarioFailed) {
+        attachmentFilter.attachHeld(scenarioFailed);
     }
 
     protected RequestSpecification givenSpec() {
         return given().spec(spec);
     }
+
+    /**
+     * Sends an idempotent read through {@link ResilientReads}, which may hedge or retry it.
+     *
+     * @param route   route template of the request, e.g. {@code /api/v1/Books/{id}}
+     * @param request sends the request; may be called more than once
+     * @return the response to use
+     */
+    protected Response resilientGet(String route, Supplier<Response> request) {
+        return ResilientReads.get(route, request);
+    }
+
+    /**
+     * Checks whether the list at {@code path} contains an item with the given id, reading the body as a stream.
+     * The Allure filter is left out because it would buffer the whole list for its attachment.
+     * With the {@link ReadCache} on, the list is fetched buffered so concurrent checks can share it.
+     * A streamed list is checked against its schema item by item as it is read.
+     *
+     * @param path the list endpoint
+     * @param id   the id to look for
+     * @return whether the list contains the item
+     */
+    protected boolean listContains(String path, int id) {
+        RequestSpecification request = givenSpec().noFiltersOfType(HttpAttachmentFilter.class);
+        if (!ReadCache.isEnabled()) {
+            request.filter(PooledConnectionFilter.UNBUFFERED);
+        }
+        Response response = request.when().get(path);
+        // Opened before the status check, so the stream (and with it the connection) is closed on a failed check too
+        try (InputStream body = response.asInputStream()) {
+            response.then().statusCode(OK.toInt());
+            return ReadCache.isEnabled() ? JsonIdScanner.containsId(body, id) : ResponseSchemas.containsId(path, body, id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close response body of " + path, e);
+        }
+    }
+
+    /**
+     * Registers the item created by {@code response} with the {@link ResourceJanitor}, so it is deleted after the scenario.
+     *
+     * @param path     collection path the item was posted to
+     * @param payload  the posted payload, which carries the item id
+     * @param response the create response
+     * @return the response, unchanged
+     */
+    protected Response created(String path, Object payload, Response response) {
+        Integer id = idOf(payload);
+        if (id != null && response.statusCode() / 100 == 2) {
+            ResourceJanitor.registered(this, path, id);
+            EntityLedger.written(path, stubSession, id, response);
+        }
+        return response;
+    }
+
+    /**
+     * Records the body the server acknowledged for an updated item in the {@link EntityLedger}, if it is on.
+     *
+     * @param path     collection path of the item
+     * @param id       item id
+     * @param response the update response
+     * @return the response, unchanged
+     */
+    protected Response updated(String path, int id, Response response) {
+        if (response.statusCode() / 100 == 2) {
+            EntityLedger.written(path, stubSession, id, response);
+        }
+        return response;
+    }
+
+    /**
+     * Unregisters an item once it is gone from the server.
+     *
+     * @param path     collection path of the item
+     * @param id       item id
+     * @param response the delete response
+     * @return the response, unchanged
+     */
+    protected Response deleted(String path, int id, Response response) {
+        int status = response.statusCode();
+        if (status / 100 == 2 || status == 404) {
+            ResourceJanitor.deleted(this, path, id);
+            EntityLedger.deleted(path, stubSession, id);
+        }
+        return response;
+    }
+
+    /**
+     * Ends this client's stub session once nothing more will be sent in it: the stub drops the session's writes and
+     * the {@link EntityLedger} the items it could no longer read back. A no-op against a real backend and for
+     * {@link BookstoreStubServer#SHARED_SESSION}.
+     */
+    void endStubSession() {
+        if (BookstoreStubServer.isRunning() && !BookstoreStubServer.SHARED_SESSION.equals(stubSession)) {
+            BookstoreStubServer.endSession(stubSession);
+            EntityLedger.forget(stubSession);
+        }
+    }
+
+    /**
+     * Creates an item outside any scenario, so nothing is attached to the Allure report. The caller owns the item:
+     * it is not registered with the {@link ResourceJanitor}.
+     */
+    Response createInBackground(String path, Object payload) {
+        return givenSpec()
+                .noFiltersOfType(HttpAttachmentFilter.class)
+                .body(BookstoreJson.write(payload))
+                .when()
+                .post(path);
+    }
+
+    /**
+     * Deletes an item outside any scenario, so nothing is attached to the Allure report.
+     */
+    Response deleteInBackground(String path, int id) {
+        Response response = givenSpec()
+                .noFiltersOfType(HttpAttachmentFilter.class)
+                .pathParam("id", id)
+                .when()
+                .delete(path + "/{id}");
+        int status = response.statusCode();
+        if (status / 100 == 2 || status == 404) {
+            EntityLedger.deleted(path, stubSession, id);
+        }
+        return response;
+    }
+
+    /**
+     * Reads an item outside any scenario and around everything that would dress up the answer: nothing is attached,
+     * timed, served from the {@link ReadCache} or hedged.
+     */
+    Response readInBackground(String path, int id) {
+        RequestSpecification request = givenSpec()
+                .noFiltersOfType(HttpAttachmentFilter.class)
+                .noFiltersOfType(TimingFilter.class);
+        if (ReadCache.isEnabled()) {
+            request.noFiltersOfType(ReadCache.filter().getClass());
+        }
+        return request.pathParam("id", id)
+                .when()
+                .get(path + "/{id}");
+    }
+
+    private static Integer idOf(Object payload) {
+        return switch (payload) {
+            case Book book -> book.id();
+            case Author author -> author.id();
+            case PayloadTemplate.Payload rendered -> rendered.id();
+            case Map<?, ?> map when map.get("id") instanceof Number id -> id.intValue();
+            default -> null;
+        };
+    }
 }
@@ -4,38 +4,56 @@ import eu.delimata.bookstore.model.Book;
 import io.qameta.allure.Step;
 import io.restassured.response.Response;
 
+import java.util.List;
+
 import static eu.delimata.bookstore.enums.HttpCode.OK;
 
 public class BooksApi extends BaseApi {
 
-    private static final String BOOKS = "/api/v1/Books";
+    static final String BOOKS = "/api/v1/Books";
+
+    public BooksApi() {
+    }
+
+    BooksApi(String stubSession) {
+        super(stubSession);
+    }
 
     @Step
     public Response getAll() {
-        return givenSpec().when().get(BOOKS);
+        return resilientGet(BOOKS, () -> givenSpec().when().get(BOOKS));
+    }
+
+    @Step
+    public boolean containsBook(int id) {
+        return listContains(BOOKS, id);
     }
 
     @Step
     public Response getById(int id) {
-        return givenSpec().pathParam("id", id).when().get(BOOKS + "/{id}");
+        return resilientGet(BOOKS + "/{id}", () -> givenSpec().pathParam("id", id).when().get(BOOKS + "/{id}"));
     }
 
     @Step
     public Response create(Object book) {
-        return givenSpec().body(book).when().post(BOOKS);
+        return created(BOOKS, book, givenSpec().body(BookstoreJson.write(book)).when().post(BOOKS));
     }
 
     @Step
     public Response update(int id, Book book) {
-        return givenSpec().pathParam("id", id).body(book).when().put(BOOKS + "/{id}");
+        return updated(BOOKS, id, givenSpec().pathParam("id", id).body(BookstoreJson.write(book)).when().put(BOOKS + "/{id}"));
     }
 
     @Step
     public Response delete(int id) {
-        return givenSpec().pathParam("id", id).when().delete(BOOKS + "/{id}");
+        return deleted(BOOKS, id, givenSpec().pathParam("id", id).when().delete(BOOKS + "/{id}"));
     }
 
     public Book getBookById(Integer id) {
-        return getById(id).then().statusCode(OK.toInt()).extract().as(Book.class);
+        return BookstoreJson.readBook(getById(id).then().statusCode(OK.toInt()).extract().asByteArray());
+    }
+
+    public List<Book> getAllBooks() {
+        return BookstoreJson.readBooks(getAll().then().statusCode(OK.toInt()).extract().asByteArray());
     }
 }
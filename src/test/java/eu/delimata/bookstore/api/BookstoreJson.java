@@ -0,0 +1,163 @@
+package eu.delimata.bookstore.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import eu.delimata.bookstore.model.Author;
+import eu.delimata.bookstore.model.Book;
+import eu.delimata.bookstore.utils.Config;
+import io.restassured.mapper.ObjectMapperDeserializationContext;
+import io.restassured.mapper.ObjectMapperSerializationContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The one Jackson mapper of the API layer, with readers and writers built once per JVM.
+ * <ul>
+ *     <li>{@link Book}, {@link Author} and their lists have ready-made {@link ObjectReader}s and {@link ObjectWriter}s,
+ *     so a call neither looks up a mapper nor introspects the records again.</li>
+ *     <li>Any other type gets its reader the first time it is seen, cached from then on.</li>
+ *     <li>{@link #restAssuredMapper()} puts RestAssured's {@code as(...)} and {@code body(...)} on the same mapper.</li>
+ *     <li>Request bodies of {@link Book} and {@link Author} are rendered from a {@link PayloadTemplate};
+ *     {@link PayloadTemplate.Payload}s are sent as they are.</li>
+ * </ul>
+ * Readers and writers are immutable and thread-safe, so they are shared by every scenario.
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.json.blackbird} / {@code JSON_BLACKBIRD} - register Jackson's Blackbird module, which
+ *     replaces reflective property access with generated lambdas (default false)</li>
+ *     <li>{@code bookstore.json.templates} / {@code JSON_TEMPLATES} - render book and author request bodies from
+ *     {@link PayloadTemplate}s instead of the writers (default true)</li>
+ * </ul>
+ */
+@Slf4j
+public final class BookstoreJson {
+
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    private static final boolean TEMPLATES = Config.getBoolean("bookstore.json.templates", "JSON_TEMPLATES", true);
+
+    private static final ObjectMapper MAPPER = createMapper();
+
+    private static final ObjectReader BOOK_READER = MAPPER.readerFor(Book.class);
+    private static final ObjectReader BOOKS_READER = MAPPER.readerForListOf(Book.class);
+    private static final ObjectReader AUTHOR_READER = MAPPER.readerFor(Author.class);
+    private static final ObjectReader AUTHORS_READER = MAPPER.readerForListOf(Author.class);
+
+    private static final ObjectWriter BOOK_WRITER = MAPPER.writerFor(Book.class);
+    private static final ObjectWriter AUTHOR_WRITER = MAPPER.writerFor(Author.class);
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    private static final ConcurrentMap<Type, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    private static final io.restassured.mapper.ObjectMapper REST_ASSURED_MAPPER = new io.restassured.mapper.ObjectMapper() {
+        @Override
+        public Object deserialize(ObjectMapperDeserializationContext context) {
+            return read(context.getDataToDeserialize().asByteArray(), context.getType());
+        }
+
+        @Override
+        public Object serialize(ObjectMapperSerializationContext context) {
+            return write(context.getObjectToSerialize());
+        }
+    };
+
+    private BookstoreJson() {
+    }
+
+    /**
+     * @return the shared mapper, for callers that need something the readers and writers do not cover
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Returns a RestAssured object mapper backed by the cached readers and writers.
+     *
+     * @return the RestAssured mapper
+     */
+    public static io.restassured.mapper.ObjectMapper restAssuredMapper() {
+        return REST_ASSURED_MAPPER;
+    }
+
+    public static Book readBook(byte[] json) {
+        return read(BOOK_READER, json);
+    }
+
+    public static List<Book> readBooks(byte[] json) {
+        return read(BOOKS_READER, json);
+    }
+
+    public static Author readAuthor(byte[] json) {
+        return read(AUTHOR_READER, json);
+    }
+
+    public static List<Author> readAuthors(byte[] json) {
+        return read(AUTHORS_READER, json);
+    }
+
+    /**
+     * Serializes a request payload: a rendered {@link PayloadTemplate.Payload} as is, a record through its template
+     * or its own writer, anything else through the mapper's.
+     *
+     * @param payload the payload
+     * @return UTF-8 JSON
+     */
+    public static byte[] write(Object payload) {
+        return switch (payload) {
+            case PayloadTemplate.Payload rendered -> rendered.json();
+            case Book book when TEMPLATES -> PayloadTemplate.BOOK.write(book);
+            case Author author when TEMPLATES -> PayloadTemplate.AUTHOR.write(author);
+            case Book book -> write(BOOK_WRITER, book);
+            case Author author -> write(AUTHOR_WRITER, author);
+            default -> write(WRITER, payload);
+        };
+    }
+
+    private static byte[] write(ObjectWriter writer, Object payload) {
+        try {
+            return writer.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static Object read(byte[] json, Type type) {
+        ObjectReader reader = type == Book.class ? BOOK_READER
+                : type == Author.class ? AUTHOR_READER
+                : READERS.computeIfAbsent(type, t -> MAPPER.readerFor(MAPPER.constructType(t)));
+        return read(reader, json);
+    }
+
+    private static <T> T read(ObjectReader reader, byte[] json) {
+        try {
+            return reader.readValue(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + reader.getValueType() + " from the response", e);
+        }
+    }
+
+    private static ObjectMapper createMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        if (Config.getBoolean("bookstore.json.blackbird", "JSON_BLACKBIRD", false)) {
+            // Runtime-only dependency: the mapper works the same without it, just with reflective access
+            try {
+                mapper.registerModule((Module) Class.forName(BLACKBIRD_MODULE).getDeclaredConstructor().newInstance());
+                log.info("Jackson Blackbird module registered");
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("Jackson Blackbird module not available, using reflective access: {}", e.toString());
+            }
+        }
+        return mapper;
+    }
+}
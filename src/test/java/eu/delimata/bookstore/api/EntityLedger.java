@@ -0,0 +1,266 @@
+package eu.delimata.bookstore.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compact record of the items written through {@link BaseApi}, so a long run can read them back and see whether the
+ * server still agrees with what it acknowledged.
+ * <ul>
+ *     <li>Per item it keeps the collection path, stub session and id plus a fingerprint of the body the server returned
+ *     on create or update, or that the item was deleted - never the body itself.</li>
+ *     <li>Past its capacity it keeps a uniform sample of every item written so far (reservoir sampling), so items
+ *     from the first hour of a soak are as likely to be checked as those from the last minute.</li>
+ *     <li>{@link #verify(int)} reads a random sample back around the caches, timing and attachments, and sorts each
+ *     item into intact, changed, lost (acknowledged but gone) or resurrected (deleted but back).</li>
+ * </ul>
+ * Off unless {@link #start(int)} was called; recording is then a map update under one lock per write request.
+ */
+@Slf4j
+public final class EntityLedger {
+
+    private static volatile EntityLedger active;
+
+    private final Key[] slots;
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private int size;
+    private long seen;
+
+    private EntityLedger(int capacity) {
+        this.slots = new Key[capacity];
+    }
+
+    /**
+     * Starts recording; later calls keep the running ledger.
+     *
+     * @param capacity number of items to keep
+     */
+    public static synchronized void start(int capacity) {
+        if (active == null) {
+            active = new EntityLedger(Math.max(1, capacity));
+        }
+    }
+
+    /**
+     * @return whether writes are being recorded
+     */
+    public static boolean isEnabled() {
+        return active != null;
+    }
+
+    /**
+     * Records the body the server acknowledged for a created or updated item.
+     */
+    static void written(String path, String session, int id, Response response) {
+        EntityLedger ledger = active;
+        if (ledger != null) {
+            Integer fingerprint = fingerprint(response);
+            if (fingerprint != null) {
+                ledger.put(new Key(path, session, id), fingerprint);
+            }
+        }
+    }
+
+    /**
+     * Records that an item is gone; ignored for items the ledger does not keep.
+     */
+    static void deleted(String path, String session, int id) {
+        EntityLedger ledger = active;
+        if (ledger != null) {
+            ledger.markDeleted(new Key(path, session, id));
+        }
+    }
+
+    /**
+     * Drops the items written in a stub session that has ended: the stub no longer holds them, so reading them back
+     * would report every one as lost or resurrected.
+     */
+    static void forget(String session) {
+        EntityLedger ledger = active;
+        if (ledger != null) {
+            ledger.removeSession(session);
+        }
+    }
+
+    /**
+     * Reads a random sample of the recorded items back and compares them with what the ledger expects.
+     * Items written again while being checked are skipped rather than reported.
+     *
+     * @param sample maximum number of items to read
+     * @return outcome of the check; empty when the ledger is off
+     */
+    public static Verification verify(int sample) {
+        EntityLedger ledger = active;
+        if (ledger == null) {
+            return new Verification(0, 0, 0, 0, 0, 0, 0);
+        }
+        Map<Key, Entry> picked = ledger.pick(sample);
+        int intact = 0;
+        int changed = 0;
+        int lost = 0;
+        int resurrected = 0;
+        int failed = 0;
+        for (Map.Entry<Key, Entry> item : picked.entrySet()) {
+            Key key = item.getKey();
+            Entry expected = item.getValue();
+            Response response;
+            try {
+                response = new Reader(key.session()).readInBackground(key.path(), key.id());
+            } catch (RuntimeException | AssertionError e) {
+                log.debug("Reading back {} {} failed: {}", key.path(), key.id(), e.getMessage());
+                failed++;
+                continue;
+            }
+            if (!ledger.unchanged(key, expected.version)) {
+                continue;
+            }
+            int status = response.statusCode();
+            if (status == 404) {
+                if (expected.deleted) {
+                    intact++;
+                } else {
+                    lost++;
+                }
+            } else if (status / 100 != 2) {
+                failed++;
+            } else if (expected.deleted) {
+                resurrected++;
+            } else if (Integer.valueOf(expected.fingerprint).equals(fingerprint(response))) {
+                intact++;
+            } else {
+                changed++;
+            }
+        }
+        int kept;
+        synchronized (ledger) {
+            kept = ledger.size;
+        }
+        return new Verification(kept, intact + changed + lost + resurrected, intact, changed, lost, resurrected, failed);
+    }
+
+    private synchronized void put(Key key, int fingerprint) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.fingerprint = fingerprint;
+            entry.deleted = false;
+            entry.version++;
+            return;
+        }
+        seen++;
+        if (size < slots.length) {
+            slots[size++] = key;
+        } else {
+            long slot = ThreadLocalRandom.current().nextLong(seen);
+            if (slot >= slots.length) {
+                return;
+            }
+            entries.remove(slots[(int) slot]);
+            slots[(int) slot] = key;
+        }
+        Entry added = new Entry();
+        added.fingerprint = fingerprint;
+        entries.put(key, added);
+    }
+
+    private synchronized void markDeleted(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.deleted) {
+            entry.deleted = true;
+            entry.version++;
+        }
+    }
+
+    private synchronized void removeSession(String session) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (session.equals(slots[i].session())) {
+                entries.remove(slots[i]);
+            } else {
+                slots[kept++] = slots[i];
+            }
+        }
+        Arrays.fill(slots, kept, size, null);
+        size = kept;
+    }
+
+    private synchronized Map<Key, Entry> pick(int sample) {
+        Map<Key, Entry> picked = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int wanted = Math.min(sample, size);
+        while (picked.size() < wanted) {
+            Key key = slots[random.nextInt(size)];
+            picked.computeIfAbsent(key, k -> entries.get(k).copy());
+        }
+        return picked;
+    }
+
+    private synchronized boolean unchanged(Key key, int version) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.version == version;
+    }
+
+    // Hash of the parsed tree, so formatting and field order do not matter; null when the body is not JSON
+    private static Integer fingerprint(Response response) {
+        try {
+            JsonNode tree = BookstoreJson.mapper().readTree(response.asByteArray());
+            return tree == null || tree.isMissingNode() ? null : tree.hashCode();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Outcome of one read-back.
+     *
+     * @param kept        items the ledger holds
+     * @param checked     items read back and compared
+     * @param intact      items the server still has as acknowledged, or still does not have once deleted
+     * @param changed     items whose body differs from the acknowledged one
+     * @param lost        acknowledged items the server no longer has
+     * @param resurrected deleted items the server returns again
+     * @param failed      reads that got neither the item nor a 404
+     */
+    public record Verification(int kept, int checked, int intact, int changed, int lost, int resurrected, int failed) {
+
+        /**
+         * @return items that do not match the ledger
+         */
+        public int mismatches() {
+            return changed + lost + resurrected;
+        }
+    }
+
+    private record Key(String path, String session, int id) {
+    }
+
+    private static final class Entry {
+        private int fingerprint;
+        private boolean deleted;
+        private int version;
+
+        Entry copy() {
+            Entry copy = new Entry();
+            copy.fingerprint = fingerprint;
+            copy.deleted = deleted;
+            copy.version = version;
+            return copy;
+        }
+    }
+
+    /**
+     * Client in the session an item was written in; only used for background reads.
+     */
+    private static final class Reader extends BaseApi {
+
+        Reader(String session) {
+            super(session);
+        }
+    }
+}
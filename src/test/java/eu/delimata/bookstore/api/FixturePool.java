@@ -0,0 +1,377 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.model.Author;
+import eu.delimata.bookstore.model.Book;
+import eu.delimata.bookstore.stepdefinitions.builders.AuthorBuilder;
+import eu.delimata.bookstore.stepdefinitions.builders.BookBuilder;
+import eu.delimata.bookstore.stub.BookstoreStubServer;
+import eu.delimata.bookstore.utils.Config;
+import eu.delimata.bookstore.utils.TestData;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Books and authors created before the scenarios start, handed out to the steps that only need "some existing item".
+ * <ul>
+ *     <li>{@link #start()} creates every fixture concurrently on virtual threads, before the first scenario.</li>
+ *     <li>{@link Mode#EXCLUSIVE} leases are for scenarios that change or delete the item: each fixture is handed out once,
+ *     and the pool creates a replacement in the background. Should the pool run dry, the lease creates one on the spot
+ *     and counts a miss.</li>
+ *     <li>{@link Mode#SHARED} leases are for scenarios that only read the item: a small fixed set is handed out round-robin.</li>
+ * </ul>
+ * Fixtures are not owned by any scenario, so the {@link ResourceJanitor} leaves them alone; {@link #stop()} deletes them.
+ * On the stub they are created in {@link BookstoreStubServer#SHARED_SESSION}, visible to every scenario, while changes a
+ * scenario makes stay in its own session. The lease wait reported by {@link #stats()} shows whether the pool is big enough:
+ * misses and a high maximum mean scenarios consume fixtures faster than they are replaced.
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.fixtures.enabled} / {@code FIXTURES_ENABLED} - lease fixtures instead of creating items in
+ *     each scenario (default true)</li>
+ *     <li>{@code bookstore.fixtures.size} / {@code FIXTURES_SIZE} - exclusive fixtures kept ready per resource (default 8)</li>
+ *     <li>{@code bookstore.fixtures.shared} / {@code FIXTURES_SHARED} - read-only fixtures per resource (default 2)</li>
+ *     <li>{@code bookstore.fixtures.startTimeoutSeconds} / {@code FIXTURES_START_TIMEOUT_SECONDS} - how long
+ *     {@link #start()} waits for the first fill (default 30)</li>
+ * </ul>
+ *
+ * @param <T> fixture model type
+ */
+@Slf4j
+public final class FixturePool<T> {
+
+    /**
+     * How a scenario is going to use the leased item.
+     */
+    public enum Mode {
+        /** The scenario may change or delete the item, so nobody else gets it. */
+        EXCLUSIVE,
+        /** The scenario only reads the item, so it may be handed to others at the same time. */
+        SHARED
+    }
+
+    private static final boolean ENABLED = Config.getBoolean("bookstore.fixtures.enabled", "FIXTURES_ENABLED", true);
+    private static final int SIZE = Math.max(1, Config.getInt("bookstore.fixtures.size", "FIXTURES_SIZE", 8));
+    private static final int SHARED = Math.max(1, Config.getInt("bookstore.fixtures.shared", "FIXTURES_SHARED", 2));
+    private static final long START_TIMEOUT_SECONDS =
+            Config.getLong("bookstore.fixtures.startTimeoutSeconds", "FIXTURES_START_TIMEOUT_SECONDS", 30);
+
+    // Not a monitor: start and stop wait for virtual threads and may themselves run on one
+    private static final ReentrantLock LIFECYCLE = new ReentrantLock();
+
+    private static volatile FixturePool<Book> books;
+    private static volatile FixturePool<Author> authors;
+
+    private final String name;
+    private final BaseApi api;
+    private final String path;
+    private final IntFunction<T> generator;
+    private final ToIntFunction<T> idOf;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Queue<T> available = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger availableCount = new AtomicInteger();
+    private final AtomicInteger provisioning = new AtomicInteger();
+    private final List<T> shared = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextShared = new AtomicInteger();
+    private final Set<Integer> created = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder sharedLeases = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder provisioned = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0);
+
+    private FixturePool(String name, BaseApi api, String path, IntFunction<T> generator, ToIntFunction<T> idOf) {
+        this.name = name;
+        this.api = api;
+        this.path = path;
+        this.generator = generator;
+        this.idOf = idOf;
+    }
+
+    /**
+     * @return whether steps lease fixtures in this run
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Creates both pools and waits until their first fill is done or the start timeout passes, whichever comes first.
+     * Fixtures still missing by then are created in the background. A no-op when the pool is off or already started.
+     */
+    public static void start() {
+        LIFECYCLE.lock();
+        try {
+            startLocked();
+        } finally {
+            LIFECYCLE.unlock();
+        }
+    }
+
+    private static void startLocked() {
+        if (!ENABLED || books != null) {
+            return;
+        }
+        FixturePool<Book> bookPool = new FixturePool<>("books",
+                new BooksApi(BookstoreStubServer.SHARED_SESSION), BooksApi.BOOKS,
+                id -> BookBuilder.aBook().withId(id).buildRandom(), Book::id);
+        FixturePool<Author> authorPool = new FixturePool<>("authors",
+                new AuthorsApi(BookstoreStubServer.SHARED_SESSION), AuthorsApi.AUTHORS,
+                id -> AuthorBuilder.anAuthor().withId(id).withIdBook(id).buildRandom(), Author::id);
+
+        long startNanos = System.nanoTime();
+        List<CompletableFuture<?>> fills = new ArrayList<>(bookPool.fill());
+        fills.addAll(authorPool.fill());
+        try {
+            CompletableFuture.allOf(fills.toArray(CompletableFuture[]::new)).get(START_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Fixture pool not filled after {} s, scenarios may have to create their own items", START_TIMEOUT_SECONDS);
+        } catch (ExecutionException e) {
+            log.error("Error: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        books = bookPool;
+        authors = authorPool;
+        log.info("Fixture pool: {} books and {} authors ready in {} ms", bookPool.created.size(), authorPool.created.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * @return the book pool, started on first use
+     */
+    public static FixturePool<Book> books() {
+        if (books == null) {
+            start();
+        }
+        return books;
+    }
+
+    /**
+     * @return the author pool, started on first use
+     */
+    public static FixturePool<Author> authors() {
+        if (authors == null) {
+            start();
+        }
+        return authors;
+    }
+
+    /**
+     * Stops replenishing and deletes every fixture the pools created, leased or not. The pools' statistics stay
+     * readable afterwards.
+     */
+    public static void stop() {
+        LIFECYCLE.lock();
+        try {
+            if (books != null) {
+                books.close();
+                authors.close();
+            }
+        } finally {
+            LIFECYCLE.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of both pools' counters.
+     *
+     * @return book and author pool statistics, empty when the pool was never started
+     */
+    public static List<FixtureStats> stats() {
+        FixturePool<Book> bookPool = books;
+        FixturePool<Author> authorPool = authors;
+        return bookPool == null ? List.of() : List.of(bookPool.snapshot(), authorPool.snapshot());
+    }
+
+    /**
+     * Point-in-time view of one pool.
+     *
+     * @param resource       the pooled resource
+     * @param available      exclusive fixtures ready to lease
+     * @param leases         exclusive leases handed out
+     * @param sharedLeases   shared leases handed out
+     * @param misses         leases that had to create their item on the spot
+     * @param provisioned    items created by the pool
+     * @param failures       creates that failed
+     * @param meanWaitMillis mean time a lease took
+     * @param maxWaitMillis  longest time a lease took
+     */
+    public record FixtureStats(String resource, int available, long leases, long sharedLeases, long misses,
+                               long provisioned, long failures, double meanWaitMillis, double maxWaitMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d leases (%d shared), %d misses, %d provisioned, %d failed, %d available, "
+                            + "wait mean %.2f ms / max %.2f ms", resource, leases + sharedLeases, sharedLeases, misses,
+                    provisioned, failures, available, meanWaitMillis, maxWaitMillis);
+        }
+    }
+
+    /**
+     * Hands out an existing item. Does not block on the pool: an exclusive lease that finds the pool empty creates
+     * its item right away.
+     *
+     * @param mode how the scenario is going to use the item
+     * @return an item that exists on the server
+     * @throws IllegalStateException if an item had to be created and the server refused it
+     */
+    public T lease(Mode mode) {
+        long startNanos = System.nanoTime();
+        try {
+            return mode == Mode.SHARED ? leaseShared() : leaseExclusive();
+        } finally {
+            long waited = System.nanoTime() - startNanos;
+            waitNanos.add(waited);
+            maxWaitNanos.accumulate(waited);
+        }
+    }
+
+    private T leaseExclusive() {
+        leases.increment();
+        T fixture = available.poll();
+        if (fixture != null) {
+            availableCount.decrementAndGet();
+        }
+        topUp();
+        if (fixture != null) {
+            return fixture;
+        }
+        misses.increment();
+        return create();
+    }
+
+    private T leaseShared() {
+        sharedLeases.increment();
+        List<T> snapshot = shared;
+        if (snapshot.isEmpty()) {
+            // The first fill failed or timed out; whoever gets here first provides the shared item
+            misses.increment();
+            T fixture = create();
+            shared.add(fixture);
+            return fixture;
+        }
+        return snapshot.get(Math.floorMod(nextShared.getAndIncrement(), snapshot.size()));
+    }
+
+    private List<CompletableFuture<?>> fill() {
+        List<CompletableFuture<?>> fills = new ArrayList<>(SHARED + SIZE);
+        for (int i = 0; i < SHARED; i++) {
+            fills.add(CompletableFuture.runAsync(() -> shared.add(create()), executor));
+        }
+        provisioning.addAndGet(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            fills.add(CompletableFuture.runAsync(this::provision, executor));
+        }
+        return fills;
+    }
+
+    /**
+     * Starts background creates until the ready and in-flight fixtures add up to the pool size again.
+     */
+    private void topUp() {
+        while (true) {
+            int inFlight = provisioning.get();
+            if (availableCount.get() + inFlight >= SIZE) {
+                return;
+            }
+            if (provisioning.compareAndSet(inFlight, inFlight + 1)) {
+                try {
+                    executor.execute(this::provision);
+                } catch (RejectedExecutionException e) {
+                    // Stopped: nothing left to replenish for
+                    provisioning.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void provision() {
+        try {
+            available.offer(create());
+            availableCount.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.warn("Could not provision a fixture for {}: {}", name, e.getMessage());
+        } finally {
+            provisioning.decrementAndGet();
+        }
+    }
+
+    private T create() {
+        T fixture = generator.apply(TestData.uniqueId());
+        Response response;
+        try {
+            response = api.createInBackground(path, fixture);
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        }
+        if (response.statusCode() / 100 != 2) {
+            failures.increment();
+            throw new IllegalStateException("Could not create a " + name + " fixture: HTTP " + response.statusCode());
+        }
+        created.add(idOf.applyAsInt(fixture));
+        provisioned.increment();
+        return fixture;
+    }
+
+    private void close() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(START_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LongAdder deleted = new LongAdder();
+        try (ExecutorService deleter = Executors.newVirtualThreadPerTaskExecutor()) {
+            created.forEach(id -> deleter.submit(() -> {
+                try {
+                    int status = api.deleteInBackground(path, id).statusCode();
+                    if (status / 100 == 2 || status == 404) {
+                        deleted.increment();
+                    } else {
+                        log.warn("Could not delete {} fixture {}: HTTP {}", name, id, status);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not delete {} fixture {}: {}", name, id, e.getMessage());
+                }
+            }));
+        }
+        log.info("Fixture pool: deleted {} of {} {}", deleted.sum(), created.size(), name);
+    }
+
+    private FixtureStats snapshot() {
+        long leased = leases.sum() + sharedLeases.sum();
+        return new FixtureStats(name, availableCount.get(), leases.sum(), sharedLeases.sum(), misses.sum(),
+                provisioned.sum(), failures.sum(),
+                leased == 0 ? 0 : waitNanos.sum() / 1e6 / leased, maxWaitNanos.get() / 1e6);
+    }
+}
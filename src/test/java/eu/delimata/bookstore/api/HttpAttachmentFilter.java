@@ -0,0 +1,237 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.utils.Config;
+import io.qameta.allure.attachment.AttachmentData;
+import io.qameta.allure.attachment.AttachmentProcessor;
+import io.qameta.allure.attachment.AttachmentRenderer;
+import io.qameta.allure.attachment.DefaultAttachmentProcessor;
+import io.qameta.allure.attachment.FreemarkerAttachmentRenderer;
+import io.qameta.allure.attachment.http.HttpRequestAttachment;
+import io.qameta.allure.attachment.http.HttpResponseAttachment;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.internal.NameAndValue;
+import io.restassured.internal.support.Prettifier;
+import io.restassured.parsing.Parser;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Attaches requests and responses of one {@link BaseApi} instance to the Allure report, in place of
+ * {@code AllureRestAssured}, under a configurable policy:
+ * <ul>
+ *     <li>{@code always} attaches each exchange to the step that sent it; {@code failures} holds the exchanges until
+ *     the scenario ends and attaches them only if it failed.</li>
+ *     <li>A share of the remaining exchanges can still be sampled in: requests answered below 400 in {@code always}
+ *     mode, requests of passing scenarios in {@code failures} mode.</li>
+ *     <li>Bodies above a size cap are cut with a truncation marker instead of being pretty-printed,
+ *     and bodies above a hard threshold are left out altogether.</li>
+ * </ul>
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.report.http.attach} / {@code HTTP_ATTACH} - {@code always} or {@code failures} (default always)</li>
+ *     <li>{@code bookstore.report.http.samplePercent} / {@code HTTP_ATTACH_SAMPLE_PERCENT} - share of passing requests
+ *     attached (default 100)</li>
+ *     <li>{@code bookstore.report.http.maxBodyBytes} / {@code HTTP_ATTACH_MAX_BODY_BYTES} - body size cap
+ *     (default 16384)</li>
+ *     <li>{@code bookstore.report.http.skipBodyAboveBytes} / {@code HTTP_ATTACH_SKIP_BODY_ABOVE_BYTES} - bodies larger
+ *     than this are omitted (default 1048576)</li>
+ * </ul>
+ */
+public final class HttpAttachmentFilter implements OrderedFilter {
+
+    private static final boolean ON_FAILURE_ONLY =
+            "failures".equals(Config.get("bookstore.report.http.attach", "HTTP_ATTACH", "always").toLowerCase(Locale.ROOT));
+    private static final int SAMPLE_PERCENT =
+            Config.getInt("bookstore.report.http.samplePercent", "HTTP_ATTACH_SAMPLE_PERCENT", 100);
+    private static final int MAX_BODY_BYTES =
+            Config.getInt("bookstore.report.http.maxBodyBytes", "HTTP_ATTACH_MAX_BODY_BYTES", 16_384);
+    private static final long SKIP_BODY_ABOVE_BYTES =
+            Config.getLong("bookstore.report.http.skipBodyAboveBytes", "HTTP_ATTACH_SKIP_BODY_ABOVE_BYTES", 1_048_576);
+
+    private static final AttachmentProcessor<AttachmentData> PROCESSOR = new DefaultAttachmentProcessor();
+    private static final AttachmentRenderer<AttachmentData> REQUEST_RENDERER = new FreemarkerAttachmentRenderer("http-request.ftl");
+    private static final AttachmentRenderer<AttachmentData> RESPONSE_RENDERER = new FreemarkerAttachmentRenderer("http-response.ftl");
+
+    private static final LongAdder ATTACHED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder TRUNCATED = new LongAdder();
+    private static final LongAdder OMITTED = new LongAdder();
+
+    private final Queue<Exchange> held = new ConcurrentLinkedQueue<>();
+
+    HttpAttachmentFilter() {
+    }
+
+    /**
+     * Returns a snapshot of the attachment counters of every instance.
+     *
+     * @return attachment statistics
+     */
+    public static HttpAttachmentStats stats() {
+        return new HttpAttachmentStats(ATTACHED.sum(), DROPPED.sum(), TRUNCATED.sum(), OMITTED.sum());
+    }
+
+    /**
+     * Point-in-time view of the attachment policy's work.
+     *
+     * @param attached  exchanges attached to the report
+     * @param dropped   exchanges left out by the policy or by sampling
+     * @param truncated bodies cut at the size cap
+     * @param omitted   bodies left out for exceeding the threshold
+     */
+    public record HttpAttachmentStats(long attached, long dropped, long truncated, long omitted) {
+    }
+
+    @Override
+    public int getOrder() {
+        // Innermost but for a transport filter, like AllureRestAssured, so the request is attached as it is actually sent
+        return LOWEST_PRECEDENCE - 1;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = null;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+            return response;
+        } finally {
+            Map<String, String> formParams = requestSpec.getFormParams();
+            Exchange exchange = new Exchange(requestSpec.getMethod(), requestSpec.getURI(), headersOf(requestSpec),
+                    requestSpec.getContentType(), requestSpec.getBody(),
+                    formParams.isEmpty() ? Map.of() : Map.copyOf(formParams), response);
+            if (ON_FAILURE_ONLY) {
+                held.add(exchange);
+            } else if (response == null || response.statusCode() >= 400 || sampled()) {
+                attach(exchange);
+            } else {
+                DROPPED.increment();
+            }
+        }
+    }
+
+    /**
+     * Attaches the exchanges held since the last call, if the policy asks for them, and forgets the rest.
+     * A no-op in {@code always} mode, where nothing is held.
+     *
+     * @param scenarioFailed whether the scenario that sent them failed
+     */
+    void attachHeld(boolean scenarioFailed) {
+        Exchange exchange;
+        while ((exchange = held.poll()) != null) {
+            if (scenarioFailed || sampled()) {
+                attach(exchange);
+            } else {
+                DROPPED.increment();
+            }
+        }
+    }
+
+    private static boolean sampled() {
+        return SAMPLE_PERCENT >= 100 || SAMPLE_PERCENT > 0 && ThreadLocalRandom.current().nextInt(100) < SAMPLE_PERCENT;
+    }
+
+    private static void attach(Exchange exchange) {
+        HttpRequestAttachment.Builder request = HttpRequestAttachment.Builder.create("Request", exchange.uri())
+                .setMethod(exchange.method())
+                .setHeaders(exchange.headers());
+        if (exchange.body() != null) {
+            request.setBody(requestBody(exchange.body(), exchange.contentType()));
+        }
+        if (!exchange.formParams().isEmpty()) {
+            request.setFormParams(exchange.formParams());
+        }
+        PROCESSOR.addAttachment(request.build(), REQUEST_RENDERER);
+
+        Response response = exchange.response();
+        if (response != null) {
+            PROCESSOR.addAttachment(HttpResponseAttachment.Builder.create(response.getStatusLine())
+                    .setResponseCode(response.statusCode())
+                    .setHeaders(toMap(response.getHeaders(), Set.of()))
+                    .setBody(responseBody(response))
+                    .build(), RESPONSE_RENDERER);
+        }
+        ATTACHED.increment();
+    }
+
+    private static String requestBody(Object body, String contentType) {
+        return switch (body) {
+            // The caps are in bytes, so text is encoded first and measured like any other body
+            case String text -> requestBody(text.getBytes(StandardCharsets.UTF_8), contentType);
+            case byte[] bytes when bytes.length <= MAX_BODY_BYTES && contentType != null ->
+                    new Prettifier().prettify(new String(bytes, StandardCharsets.UTF_8), Parser.fromContentType(contentType));
+            case byte[] bytes -> capped(bytes, null);
+            default -> contentType == null
+                    ? body.toString()
+                    : new Prettifier().prettify(body.toString(), Parser.fromContentType(contentType));
+        };
+    }
+
+    private static String responseBody(Response response) {
+        byte[] bytes = response.asByteArray();
+        return capped(bytes, () -> new Prettifier().getPrettifiedBodyIfPossible(response, response.getBody()));
+    }
+
+    /**
+     * Renders a body within the policy: omitted above the threshold, cut above the cap,
+     * otherwise pretty-printed when a formatter is given.
+     */
+    private static String capped(byte[] body, Supplier<String> pretty) {
+        if (body.length > SKIP_BODY_ABOVE_BYTES) {
+            OMITTED.increment();
+            return "[body omitted: " + body.length + " bytes]";
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            TRUNCATED.increment();
+            int cut = characterBoundary(body, MAX_BODY_BYTES);
+            return new String(body, 0, cut, StandardCharsets.UTF_8)
+                    + "\n... [truncated: " + (body.length - cut) + " more bytes]";
+        }
+        return pretty != null ? pretty.get() : new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Moves a cut back to the start of the UTF-8 character it would split, so the kept part never ends in a
+     * replacement character. Continuation bytes look like {@code 10xxxxxx}.
+     */
+    private static int characterBoundary(byte[] body, int cut) {
+        while (cut > 0 && (body[cut] & 0xC0) == 0x80) {
+            cut--;
+        }
+        return cut;
+    }
+
+    private static Map<String, String> headersOf(FilterableRequestSpecification requestSpec) {
+        return toMap(requestSpec.getHeaders(), requestSpec.getConfig().getLogConfig().blacklistedHeaders());
+    }
+
+    private static Map<String, String> toMap(Iterable<? extends NameAndValue> items, Set<String> blacklisted) {
+        Map<String, String> map = new HashMap<>();
+        for (NameAndValue item : items) {
+            map.put(item.getName(), blacklisted.contains(item.getName()) ? "[ BLACKLISTED ]" : item.getValue());
+        }
+        return map;
+    }
+
+    /**
+     * What is needed to render one request/response pair later; the response body is already buffered.
+     */
+    private record Exchange(String method, String uri, Map<String, String> headers, String contentType, Object body,
+                            Map<String, String> formParams, Response response) {
+    }
+}
@@ -0,0 +1,58 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.utils.Config;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.RestAssuredConfig;
+
+import java.util.Locale;
+
+/**
+ * The layer that puts requests on the wire, beneath {@link BooksApi} and {@link AuthorsApi}.
+ * Requests are still built, filtered and asserted with RestAssured, so steps see the same {@code Response}
+ * whichever transport sent it.
+ * <ul>
+ *     <li>{@code apache} - RestAssured's own Apache HttpClient 4 over the {@link SharedHttpClient} pool (HTTP/1.1).</li>
+ *     <li>{@code jdk} - the JDK {@link java.net.http.HttpClient}, see {@link JdkHttpTransport}: HTTP/2 with
+ *     many requests multiplexed over one connection per host, falling back to HTTP/1.1 where the server does not
+ *     speak it.</li>
+ * </ul>
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.http.transport} / {@code HTTP_TRANSPORT} - {@code apache} or {@code jdk} (default apache)</li>
+ * </ul>
+ */
+public interface HttpTransport {
+
+    /**
+     * @return the transport chosen for this run
+     */
+    static HttpTransport selected() {
+        String name = Config.get("bookstore.http.transport", "HTTP_TRANSPORT", "apache").toLowerCase(Locale.ROOT);
+        return switch (name) {
+            case "apache" -> ApacheHttpTransport.INSTANCE;
+            case "jdk" -> JdkHttpTransport.INSTANCE;
+            default -> throw new IllegalArgumentException("Unknown HTTP transport '" + name + "', expected apache or jdk");
+        };
+    }
+
+    /**
+     * @return the transport's setting value, e.g. {@code jdk}
+     */
+    String name();
+
+    /**
+     * Routes the requests of a specification under construction through this transport.
+     *
+     * @param builder the specification of one {@link BaseApi} instance
+     * @param config  the configuration the specification should use, before any transport settings
+     */
+    void configure(RequestSpecBuilder builder, RestAssuredConfig config);
+
+    /**
+     * Returns a snapshot of the transport's connection statistics.
+     *
+     * @return transport statistics
+     */
+    Record stats();
+}
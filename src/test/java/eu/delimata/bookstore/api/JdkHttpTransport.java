@@ -0,0 +1,186 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.utils.Config;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.internal.RestAssuredResponseOptionsImpl;
+import io.restassured.internal.filter.FilterContextImpl;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends requests with the JDK {@link HttpClient} instead of RestAssured's Apache client. It is the innermost filter
+ * of every request: it builds the {@link HttpRequest} from the filtered specification, and hands the other filters
+ * and the steps a regular RestAssured {@link Response} over the buffered body.
+ * <ul>
+ *     <li>One client is shared by the whole process. Over HTTP/2 concurrent requests to a host are multiplexed
+ *     on a single connection, so no per-route pool or permits are needed; over HTTP/1.1 the client keeps its own
+ *     pool of keep-alive connections.</li>
+ *     <li>Blocking on a response parks the calling thread rather than pinning it, so scenarios on virtual threads
+ *     stay cheap; the client's own work runs on virtual threads too.</li>
+ *     <li>Connect and read timeouts are those of the {@link SharedHttpClient} settings.</li>
+ * </ul>
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.http.jdk.version} / {@code HTTP_JDK_VERSION} - preferred protocol, {@code HTTP_2} or
+ *     {@code HTTP_1_1} (default HTTP_2)</li>
+ * </ul>
+ */
+@Slf4j
+final class JdkHttpTransport implements HttpTransport, OrderedFilter {
+
+    static final JdkHttpTransport INSTANCE = new JdkHttpTransport();
+
+    /**
+     * Headers the JDK client sets itself and refuses from callers.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient client;
+    private final Duration requestTimeout = Duration.ofMillis(SharedHttpClient.socketTimeoutMillis());
+
+    private final LongAdder http2 = new LongAdder();
+    private final LongAdder http11 = new LongAdder();
+
+    private JdkHttpTransport() {
+        HttpClient.Version version = HttpClient.Version.valueOf(
+                Config.get("bookstore.http.jdk.version", "HTTP_JDK_VERSION", "HTTP_2").toUpperCase(Locale.ROOT));
+        this.client = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofMillis(SharedHttpClient.connectTimeoutMillis()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        log.info("JDK HTTP transport: {}, connect timeout {} ms, request timeout {} ms",
+                version, SharedHttpClient.connectTimeoutMillis(), requestTimeout.toMillis());
+    }
+
+    @Override
+    public String name() {
+        return "jdk";
+    }
+
+    @Override
+    public void configure(RequestSpecBuilder builder, RestAssuredConfig config) {
+        builder.setConfig(config)
+                .addFilter(this);
+    }
+
+    @Override
+    public JdkTransportStats stats() {
+        return new JdkTransportStats(http2.sum(), http11.sum());
+    }
+
+    /**
+     * Requests sent by the JDK transport, by the protocol the server answered with.
+     *
+     * @param http2  exchanges over HTTP/2
+     * @param http11 exchanges over HTTP/1.1
+     */
+    public record JdkTransportStats(long http2, long http11) {
+    }
+
+    @Override
+    public int getOrder() {
+        // Innermost: this is where the request leaves the process
+        return LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        HttpRequest request = toHttpRequest(requestSpec);
+        // Callers that stream the body read it straight from the connection and close it themselves
+        boolean streamed = requestSpec.getDefinedFilters().contains(PooledConnectionFilter.UNBUFFERED);
+        try {
+            Response response = streamed
+                    ? toResponse(client.send(request, HttpResponse.BodyHandlers.ofInputStream()))
+                    : toResponse(client.send(request, HttpResponse.BodyHandlers.ofByteArray()));
+            // RestAssured's own sender hands the response the request's configuration (object mapper, logging) and
+            // filter context; Response#time() reads the latter
+            if (response instanceof RestAssuredResponseOptionsImpl<?> options && ctx instanceof FilterContextImpl context) {
+                options.setConfig(requestSpec.getConfig());
+                options.setFilterContextProperties(context.getProperties());
+            }
+            return response;
+        } catch (IOException e) {
+            throw new UncheckedIOException(requestSpec.getMethod() + " " + requestSpec.getURI() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + requestSpec.getURI(), e);
+        }
+    }
+
+    private HttpRequest toHttpRequest(FilterableRequestSpecification requestSpec) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(requestSpec.getURI()))
+                .timeout(requestTimeout)
+                .method(requestSpec.getMethod(), bodyOf(requestSpec));
+        for (Header header : requestSpec.getHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                request.header(header.getName(), header.getValue());
+            }
+        }
+        if (!requestSpec.getHeaders().hasHeaderWithName("Content-Type") && requestSpec.getContentType() != null) {
+            request.header("Content-Type", requestSpec.getContentType());
+        }
+        return request.build();
+    }
+
+    private static HttpRequest.BodyPublisher bodyOf(FilterableRequestSpecification requestSpec) {
+        Object body = requestSpec.getBody();
+        return switch (body) {
+            case null -> HttpRequest.BodyPublishers.noBody();
+            case byte[] bytes -> HttpRequest.BodyPublishers.ofByteArray(bytes);
+            case String text -> HttpRequest.BodyPublishers.ofString(text, StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException("Unsupported request body type " + body.getClass().getName());
+        };
+    }
+
+    private Response toResponse(HttpResponse<?> response) {
+        boolean overHttp2 = response.version() == HttpClient.Version.HTTP_2;
+        (overHttp2 ? http2 : http11).increment();
+
+        List<Header> headers = new ArrayList<>();
+        response.headers().map().forEach((name, values) -> {
+            // The content type is set separately, which adds its header
+            if (!name.equalsIgnoreCase("Content-Type") && !name.startsWith(":")) {
+                values.forEach(value -> headers.add(new Header(name, value)));
+            }
+        });
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(response.statusCode())
+                .setStatusLine((overHttp2 ? "HTTP/2 " : "HTTP/1.1 ") + response.statusCode())
+                .setHeaders(new Headers(headers));
+        response.headers().firstValue("Content-Type").ifPresent(builder::setContentType);
+        return switch (response.body()) {
+            case byte[] bytes -> builder.setBody(bytes).build();
+            case InputStream stream -> builder.setBody(stream).build();
+            default -> throw new IllegalStateException("Unexpected response body " + response.body());
+        };
+    }
+}
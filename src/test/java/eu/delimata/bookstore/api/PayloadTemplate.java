@@ -0,0 +1,292 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.model.Author;
+import eu.delimata.bookstore.model.Book;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A request body of fixed shape, with everything but the values serialized once per JVM.
+ * <ul>
+ *     <li>The braces, field names, quotes and separators of each field are kept as ready-made bytes; a body is
+ *     those bytes with the values spliced in between, JSON-escaped, with no mapper or tree in between.</li>
+ *     <li>{@link #without(String)} gives the same body with one field left out (the "missing data" cases),
+ *     built once per field and cached.</li>
+ *     <li>{@link #write(Object)} renders a model record, {@link #payload(Object...)} loose values, e.g. from the
+ *     payload builders, including {@code null}s.</li>
+ * </ul>
+ * Fields are written in the order of the model record, the same order Jackson uses, so a full body is byte for byte
+ * what {@link BookstoreJson}'s writers produce. Templates are immutable and shared by every scenario.
+ *
+ * @param <T> model type the template renders
+ */
+public final class PayloadTemplate<T> {
+
+    public static final PayloadTemplate<Book> BOOK = new PayloadTemplate<>(List.of(
+            new Field<>("id", Book::id),
+            new Field<>("title", Book::title),
+            new Field<>("description", Book::description),
+            new Field<>("pageCount", Book::pageCount),
+            new Field<>("excerpt", Book::excerpt),
+            new Field<>("publishDate", Book::publishDate)));
+
+    public static final PayloadTemplate<Author> AUTHOR = new PayloadTemplate<>(List.of(
+            new Field<>("id", Author::id),
+            new Field<>("idBook", Author::idBook),
+            new Field<>("firstName", Author::firstName),
+            new Field<>("lastName", Author::lastName)));
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    /** Fields of the full body, which {@link #payload(Object...)} values are indexed by. */
+    private final List<Field<T>> all;
+    /** Indexes into {@link #all} of the fields this variant writes. */
+    private final int[] written;
+    /** Bytes before each written value: a comma unless it is the first, then the quoted field name and colon. */
+    private final byte[][] prefixes;
+    private final int fixedLength;
+    private final ConcurrentMap<Integer, PayloadTemplate<T>> variants = new ConcurrentHashMap<>();
+
+    private PayloadTemplate(List<Field<T>> all) {
+        this(all, allIndexes(all.size()));
+    }
+
+    private PayloadTemplate(List<Field<T>> all, int[] written) {
+        this.all = all;
+        this.written = written;
+        this.prefixes = new byte[written.length][];
+        int length = 2;
+        for (int i = 0; i < written.length; i++) {
+            prefixes[i] = ((i == 0 ? "" : ",") + '"' + all.get(written[i]).name() + "\":").getBytes(StandardCharsets.UTF_8);
+            length += prefixes[i].length;
+        }
+        this.fixedLength = length;
+    }
+
+    /**
+     * Returns the variant of this template without the given field.
+     *
+     * @param field JSON name of the field to leave out
+     * @return the narrower template
+     * @throws IllegalArgumentException if the body has no such field
+     */
+    public PayloadTemplate<T> without(String field) {
+        return without(indexOf(field));
+    }
+
+    /**
+     * Returns the variant of this template without the field at the given position.
+     *
+     * @param index position of the field in {@link #payload(Object...)}
+     * @return the narrower template
+     */
+    public PayloadTemplate<T> without(int index) {
+        Objects.checkIndex(index, all.size());
+        return variants.computeIfAbsent(index, removed -> new PayloadTemplate<>(all,
+                Arrays.stream(written).filter(i -> i != removed).toArray()));
+    }
+
+    /**
+     * @param field JSON name of a field
+     * @return position of its value in {@link #payload(Object...)}
+     * @throws IllegalArgumentException if the body has no such field
+     */
+    public int indexOf(String field) {
+        for (int i = 0; i < all.size(); i++) {
+            if (all.get(i).name().equals(field)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field " + field + ", expected one of "
+                + all.stream().map(Field::name).toList());
+    }
+
+    /**
+     * @return number of fields of the full body
+     */
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * Renders a model record.
+     *
+     * @param value the record
+     * @return UTF-8 JSON
+     */
+    public byte[] write(T value) {
+        Sink sink = new Sink(fixedLength + 32 * written.length);
+        for (int i = 0; i < written.length; i++) {
+            sink.append(prefixes[i]);
+            writeValue(sink, all.get(written[i]).accessor().apply(value));
+        }
+        return sink.close();
+    }
+
+    /**
+     * Renders loose values, one per field of the full body in record order; the values of fields this variant
+     * leaves out are ignored.
+     *
+     * @param values field values: strings, numbers, booleans or {@code null}
+     * @return the body, with the id it carries
+     */
+    public Payload payload(Object... values) {
+        if (values.length != all.size()) {
+            throw new IllegalArgumentException("Expected " + all.size() + " values but got " + values.length);
+        }
+        Sink sink = new Sink(fixedLength + 32 * written.length);
+        Integer id = null;
+        for (int i = 0; i < written.length; i++) {
+            Object value = values[written[i]];
+            sink.append(prefixes[i]);
+            writeValue(sink, value);
+            if ("id".equals(all.get(written[i]).name()) && value instanceof Number number) {
+                id = number.intValue();
+            }
+        }
+        return new Payload(id, sink.close());
+    }
+
+    /**
+     * A rendered request body. {@link BookstoreJson#write(Object)} sends it as is.
+     *
+     * @param id   the item id the body carries, {@code null} if it has none
+     * @param json UTF-8 JSON
+     */
+    public record Payload(Integer id, byte[] json) {
+
+        @Override
+        public String toString() {
+            return new String(json, StandardCharsets.UTF_8);
+        }
+    }
+
+    private record Field<T>(String name, Function<T, ?> accessor) {
+    }
+
+    private static void writeValue(Sink sink, Object value) {
+        switch (value) {
+            case null -> sink.append(NULL);
+            case String string -> writeString(sink, string);
+            case Integer number -> sink.appendAscii(Integer.toString(number));
+            case Long number -> sink.appendAscii(Long.toString(number));
+            case Boolean bool -> sink.appendAscii(bool.toString());
+            default -> throw new IllegalArgumentException("Unsupported payload value type " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Writes a quoted, escaped string as Jackson does by default: quote, backslash, control characters and
+     * surrogates escaped, everything else as UTF-8.
+     */
+    private static void writeString(Sink sink, String value) {
+        sink.ensure(value.length() * 6 + 2);
+        sink.put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    sink.put('\\');
+                }
+                sink.put(c);
+            } else if (c < 0x20) {
+                writeControl(sink, c);
+            } else if (c < 0x800) {
+                sink.put(0xC0 | c >> 6);
+                sink.put(0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Jackson escapes each half of a surrogate pair rather than combining them into one UTF-8 sequence
+                writeEscaped(sink, c);
+            } else {
+                sink.put(0xE0 | c >> 12);
+                sink.put(0x80 | c >> 6 & 0x3F);
+                sink.put(0x80 | c & 0x3F);
+            }
+        }
+        sink.put('"');
+    }
+
+    private static void writeControl(Sink sink, char c) {
+        sink.put('\\');
+        switch (c) {
+            case '\n' -> sink.put('n');
+            case '\r' -> sink.put('r');
+            case '\t' -> sink.put('t');
+            case '\b' -> sink.put('b');
+            case '\f' -> sink.put('f');
+            default -> {
+                sink.put('u');
+                writeHex(sink, c);
+            }
+        }
+    }
+
+    private static void writeEscaped(Sink sink, char c) {
+        sink.put('\\');
+        sink.put('u');
+        writeHex(sink, c);
+    }
+
+    private static void writeHex(Sink sink, char c) {
+        sink.put(HEX[c >> 12]);
+        sink.put(HEX[c >> 8 & 0xF]);
+        sink.put(HEX[c >> 4 & 0xF]);
+        sink.put(HEX[c & 0xF]);
+    }
+
+    private static int[] allIndexes(int size) {
+        int[] indexes = new int[size];
+        Arrays.setAll(indexes, i -> i);
+        return indexes;
+    }
+
+    /**
+     * Growable byte buffer, sized up front from the template so a typical body never grows it.
+     */
+    private static final class Sink {
+
+        private byte[] buffer;
+        private int length;
+
+        Sink(int capacity) {
+            buffer = new byte[capacity];
+            buffer[length++] = '{';
+        }
+
+        void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        void put(int b) {
+            buffer[length++] = (byte) b;
+        }
+
+        void append(byte[] bytes) {
+            ensure(bytes.length + 1);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        void appendAscii(String ascii) {
+            ensure(ascii.length() + 1);
+            for (int i = 0; i < ascii.length(); i++) {
+                buffer[length++] = (byte) ascii.charAt(i);
+            }
+        }
+
+        byte[] close() {
+            ensure(1);
+            buffer[length++] = '}';
+            return buffer.length == length ? buffer : Arrays.copyOf(buffer, length);
+        }
+    }
+}
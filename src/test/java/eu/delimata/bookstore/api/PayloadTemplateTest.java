@@ -0,0 +1,108 @@
+package eu.delimata.bookstore.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import eu.delimata.bookstore.model.Author;
+import eu.delimata.bookstore.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PayloadTemplateTest {
+
+    private static final List<String> AWKWARD = List.of(
+            "",
+            "plain ascii",
+            "quote \" and backslash \\ and slash /",
+            "control \n\r\t\b\f \u0000 \u0001 \u001F \u007F",
+            "two bytes: é ß ł Ω \u0080 \u07FF",
+            "three bytes: € 中文 \u0800 \uFFFD \uFFFF",
+            "surrogate pair: \uD83D\uDE00 \uD834\uDD1E",
+            "lone surrogates: \uD800 x \uDFFF",
+            "mixed \"é\"\\€\n\uD83D\uDE00\u0002");
+
+    @Test
+    void writesBooksByteForByteAsJackson() {
+        for (String text : AWKWARD) {
+            Book book = new Book(42, text, text + "!", 7, text, "2024-01-01T00:00:00");
+            assertThat(PayloadTemplate.BOOK.write(book)).as(text).isEqualTo(jackson(book));
+        }
+    }
+
+    @Test
+    void writesAuthorsByteForByteAsJackson() {
+        for (String text : AWKWARD) {
+            Author author = new Author(Integer.MIN_VALUE, Integer.MAX_VALUE, text, text);
+            assertThat(PayloadTemplate.AUTHOR.write(author)).as(text).isEqualTo(jackson(author));
+        }
+    }
+
+    @Test
+    void writesNullsAsJackson() {
+        Book book = new Book(1, null, null, 0, null, null);
+        assertThat(PayloadTemplate.BOOK.write(book)).isEqualTo(jackson(book));
+    }
+
+    @Test
+    void leavesOutOneFieldPerVariant() {
+        Book book = new Book(3, "mixed \"é\"\\€\n\uD83D\uDE00", "d", 12, "e", "2024-01-01T00:00:00");
+        for (String field : List.of("id", "title", "description", "pageCount", "excerpt", "publishDate")) {
+            ObjectNode expected = BookstoreJson.mapper().valueToTree(book);
+            expected.remove(field);
+            assertThat(PayloadTemplate.BOOK.without(field).write(book)).as(field).isEqualTo(jackson(expected));
+        }
+    }
+
+    @Test
+    void cachesVariants() {
+        assertThat(PayloadTemplate.BOOK.without("title")).isSameAs(PayloadTemplate.BOOK.without("title"));
+        assertThat(PayloadTemplate.BOOK.without("title")).isSameAs(PayloadTemplate.BOOK.without(1));
+    }
+
+    @Test
+    void rendersLooseValuesAndKeepsTheId() {
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("id", 9);
+        expected.put("idBook", null);
+        expected.put("firstName", "Zoë \"Z\"");
+        expected.put("lastName", true);
+
+        PayloadTemplate.Payload payload = PayloadTemplate.AUTHOR.payload(9, null, "Zoë \"Z\"", true);
+
+        assertThat(payload.id()).isEqualTo(9);
+        assertThat(payload.json()).isEqualTo(jackson(expected));
+        assertThat(BookstoreJson.write(payload)).isSameAs(payload.json());
+    }
+
+    @Test
+    void ignoresValuesOfLeftOutFields() {
+        PayloadTemplate.Payload payload = PayloadTemplate.AUTHOR.without("id").payload(9, 10, "a", "b");
+
+        assertThat(payload.id()).isNull();
+        assertThat(payload.toString()).isEqualTo("{\"idBook\":10,\"firstName\":\"a\",\"lastName\":\"b\"}");
+    }
+
+    @Test
+    void rejectsUnknownFieldsAndWrongArity() {
+        assertThatThrownBy(() -> PayloadTemplate.BOOK.without("isbn"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("isbn");
+        assertThatThrownBy(() -> PayloadTemplate.BOOK.payload(1, "t"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PayloadTemplate.BOOK.payload(1, 2.5, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] jackson(Object value) {
+        try {
+            return BookstoreJson.mapper().writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package eu.delimata.bookstore.api;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.internal.RestAssuredResponseOptionsImpl;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps requests well-behaved on the {@link SharedHttpClient} pool.
+ * <ul>
+ *     <li>A request waits for a per-route permit before entering HttpClient. HttpClient 4 waits for a
+ *     pool lease inside a {@code synchronized} block, which pins virtual threads; a semaphore parks them instead.</li>
+ *     <li>The response body is buffered before the permit is returned. RestAssured reads bodies lazily,
+ *     and a connection only goes back to the pool once its body has been read. Requests carrying
+ *     {@link #UNBUFFERED} are the exception: their caller streams the body, and the permit is returned when
+ *     it closes the stream, which is also when the connection goes back to the pool.</li>
+ * </ul>
+ */
+public class PooledConnectionFilter implements Filter {
+
+    /**
+     * Marker filter for requests whose body is read as a stream by the caller. The caller must close the
+     * stream from {@link Response#asInputStream()}, even when it does not read it, to return the route permit.
+     */
+    static final Filter UNBUFFERED = (requestSpec, responseSpec, ctx) -> ctx.next(requestSpec, responseSpec);
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Semaphore permits = SharedHttpClient.acquireRoutePermit(requestSpec.getBaseUri(), requestSpec.getPort());
+        boolean handedOver = false;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            if (!requestSpec.getDefinedFilters().contains(UNBUFFERED)) {
+                response.asByteArray();
+            } else if (response instanceof RestAssuredResponseOptionsImpl<?> streamed
+                    && streamed.getContent() instanceof InputStream body) {
+                streamed.setContent(new PermitReturningStream(body, permits));
+                handedOver = true;
+            }
+            return response;
+        } finally {
+            if (!handedOver) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Response body that gives the route permit back when it is closed, exactly once.
+     */
+    private static final class PermitReturningStream extends FilterInputStream {
+
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReturningStream(InputStream body, Semaphore permits) {
+            super(body);
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.stub.BookstoreStubServer;
+import eu.delimata.bookstore.utils.Config;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional process-wide cache in front of GET requests, shared by every {@link BaseApi} instance.
+ * <ul>
+ *     <li>Identical concurrent GETs are coalesced: one request goes out and every caller gets a copy of its response.</li>
+ *     <li>Successful responses are kept for a short TTL, up to a fixed number of entries (oldest evicted first).</li>
+ *     <li>Any write to a resource ({@code POST}/{@code PUT}/{@code PATCH}/{@code DELETE} on e.g. {@code /api/v1/Books})
+ *     invalidates every cached read of that resource, including reads still in flight.</li>
+ * </ul>
+ * Entries are keyed by full URI and stub session, so scenarios never see another scenario's stub data.
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.http.cache.enabled} / {@code HTTP_CACHE_ENABLED} - turn the cache on (default false)</li>
+ *     <li>{@code bookstore.http.cache.ttlMillis} / {@code HTTP_CACHE_TTL_MILLIS} - entry lifetime (default 2000)</li>
+ *     <li>{@code bookstore.http.cache.maxEntries} / {@code HTTP_CACHE_MAX_ENTRIES} - entry limit (default 256)</li>
+ * </ul>
+ */
+public final class ReadCache {
+
+    /**
+     * Filter-context flag set when a response was served from the cache rather than the server.
+     */
+    static final String CACHED = "bookstore.readCache.cached";
+
+    private static final boolean ENABLED = Config.getBoolean("bookstore.http.cache.enabled", "HTTP_CACHE_ENABLED", false);
+    private static final long TTL_NANOS =
+            Config.getLong("bookstore.http.cache.ttlMillis", "HTTP_CACHE_TTL_MILLIS", 2_000) * 1_000_000L;
+    private static final int MAX_ENTRIES = Config.getInt("bookstore.http.cache.maxEntries", "HTTP_CACHE_MAX_ENTRIES", 256);
+
+    private static final ConcurrentMap<Key, Entry> ENTRIES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, AtomicLong> GENERATIONS = new ConcurrentHashMap<>();
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder COALESCED = new LongAdder();
+    private static final LongAdder INVALIDATIONS = new LongAdder();
+
+    private static final Filter FILTER = ReadCache::filter;
+
+    private ReadCache() {
+    }
+
+    /**
+     * @return whether the cache is switched on for this run
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the RestAssured filter that serves and invalidates cached reads.
+     *
+     * @return the cache filter
+     */
+    static Filter filter() {
+        return FILTER;
+    }
+
+    /**
+     * Returns a snapshot of the cache counters.
+     *
+     * @return cache statistics
+     */
+    public static ReadCacheStats stats() {
+        return new ReadCacheStats(HITS.sum(), MISSES.sum(), COALESCED.sum(), INVALIDATIONS.sum(), ENTRIES.size());
+    }
+
+    /**
+     * Point-in-time view of the read cache.
+     *
+     * @param hits          reads served from a completed entry
+     * @param misses        reads that went to the server
+     * @param coalesced     reads that joined a request already in flight
+     * @param invalidations writes that dropped a resource's entries
+     * @param entries       entries currently held
+     */
+    public record ReadCacheStats(long hits, long misses, long coalesced, long invalidations, int entries) {
+    }
+
+    private static Response filter(FilterableRequestSpecification requestSpec,
+                                   FilterableResponseSpecification responseSpec,
+                                   FilterContext ctx) {
+        String resource = resourceOf(requestSpec.getUserDefinedPath());
+        if (!"GET".equals(requestSpec.getMethod())) {
+            try {
+                return ctx.next(requestSpec, responseSpec);
+            } finally {
+                invalidate(resource);
+            }
+        }
+        if (requestSpec.getDefinedFilters().contains(PooledConnectionFilter.UNBUFFERED)) {
+            // A streamed body can only be read once, so it cannot be shared
+            return ctx.next(requestSpec, responseSpec);
+        }
+
+        Key key = new Key(resource, generation(resource).get(), requestSpec.getURI(),
+                requestSpec.getHeaders().getValue(BookstoreStubServer.SESSION_HEADER));
+        long now = System.nanoTime();
+        Entry created = new Entry(new CompletableFuture<>(), now);
+        Entry entry = ENTRIES.compute(key, (k, existing) ->
+                existing != null && now - existing.createdNanos < TTL_NANOS ? existing : created);
+
+        if (entry != created) {
+            (entry.response.isDone() ? HITS : COALESCED).increment();
+            ctx.setValue(CACHED, true);
+            return copyOf(join(entry));
+        }
+        MISSES.increment();
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            response.asByteArray();
+            entry.response.complete(response);
+            if (response.statusCode() / 100 != 2) {
+                ENTRIES.remove(key, entry);
+            }
+            evictIfFull();
+            return copyOf(response);
+        } catch (RuntimeException | Error e) {
+            ENTRIES.remove(key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static void invalidate(String resource) {
+        generation(resource).incrementAndGet();
+        ENTRIES.keySet().removeIf(key -> key.resource.equals(resource));
+        INVALIDATIONS.increment();
+    }
+
+    private static void evictIfFull() {
+        if (ENTRIES.size() <= MAX_ENTRIES) {
+            return;
+        }
+        long now = System.nanoTime();
+        ENTRIES.values().removeIf(entry -> now - entry.createdNanos >= TTL_NANOS);
+        while (ENTRIES.size() > MAX_ENTRIES) {
+            ENTRIES.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().createdNanos))
+                    .ifPresent(oldest -> ENTRIES.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private static AtomicLong generation(String resource) {
+        return GENERATIONS.computeIfAbsent(resource, r -> new AtomicLong());
+    }
+
+    /**
+     * Maps a path template to the resource it belongs to, e.g. {@code /api/v1/Books/{id}} to {@code /api/v1/Books}.
+     */
+    private static String resourceOf(String path) {
+        int template = path.indexOf("/{");
+        return template < 0 ? path : path.substring(0, template);
+    }
+
+    private static Response join(Entry entry) {
+        try {
+            return entry.response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Each caller gets its own response object over the shared, already buffered body.
+     */
+    private static Response copyOf(Response response) {
+        return new ResponseBuilder().clone(response).build();
+    }
+
+    private record Key(String resource, long generation, String uri, String session) {
+    }
+
+    private record Entry(CompletableFuture<Response> response, long createdNanos) {
+    }
+}
@@ -0,0 +1,440 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.metrics.EndpointLatencies;
+import eu.delimata.bookstore.metrics.LatencyHistogram;
+import eu.delimata.bookstore.utils.Config;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Makes the idempotent reads ({@code getById}, {@code getAll}) ride out slow and failed responses, shared by every
+ * {@link BaseApi} instance.
+ * <ul>
+ *     <li>Hedging: when a read has not answered after the route's observed p95, the same request is sent again and
+ *     whichever response arrives first is used. The other one is left to finish in the background.</li>
+ *     <li>Timeouts: a read that has not answered after a multiple of the route's observed p99 counts as failed,
+ *     instead of holding the scenario until the socket timeout.</li>
+ *     <li>Retries: failed reads (no response, timeout, 429 or 5xx) are sent again with a short jittered back-off.</li>
+ *     <li>Retry budget: hedges and retries draw on a shared budget that every read tops up by a fraction of a token,
+ *     so extra requests stay a small share of the traffic however badly the backend behaves.</li>
+ *     <li>Circuit breaker: after a run of consecutive failures no hedges or retries are sent for a cool-down period;
+ *     each read is still sent once.</li>
+ * </ul>
+ * Thresholds come from the latencies of successful responses recorded so far in {@link EndpointLatencies},
+ * refreshed at most once a second per route. Until a route has enough of them its reads are sent once,
+ * on the caller's thread, with only the socket timeout.
+ *
+ * <p>A read slower than the derived timeout fails with "did not respond within" rather than returning late, and a
+ * hedged read returns the hedge's response, whose time leaves out the hedge delay. Checks of the backend's own
+ * latency therefore send their reads through {@link #direct}.</p>
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.resilience.enabled} / {@code RESILIENCE_ENABLED} - turn the layer on (default true)</li>
+ *     <li>{@code bookstore.resilience.minSamples} / {@code RESILIENCE_MIN_SAMPLES} - responses a route needs before
+ *     thresholds are derived (default 20)</li>
+ *     <li>{@code bookstore.resilience.hedgePercentile} / {@code RESILIENCE_HEDGE_PERCENTILE} - latency percentile
+ *     after which a hedge is sent (default 95)</li>
+ *     <li>{@code bookstore.resilience.timeoutPercentile} / {@code RESILIENCE_TIMEOUT_PERCENTILE} and
+ *     {@code bookstore.resilience.timeoutFactor} / {@code RESILIENCE_TIMEOUT_FACTOR} - a read times out after
+ *     factor x percentile (default 3 x p99), at least {@code bookstore.resilience.minTimeoutMillis} /
+ *     {@code RESILIENCE_MIN_TIMEOUT_MILLIS} (default 1000) and at most the socket timeout</li>
+ *     <li>{@code bookstore.resilience.maxRetries} / {@code RESILIENCE_MAX_RETRIES} - retries per read (default 2)</li>
+ *     <li>{@code bookstore.resilience.retryBudget.ratio} / {@code RESILIENCE_RETRY_BUDGET_RATIO} - tokens each read
+ *     adds to the budget (default 0.1)</li>
+ *     <li>{@code bookstore.resilience.retryBudget.max} / {@code RESILIENCE_RETRY_BUDGET_MAX} - budget cap, also the
+ *     starting balance (default 10)</li>
+ *     <li>{@code bookstore.resilience.breaker.failures} / {@code RESILIENCE_BREAKER_FAILURES} - consecutive failures
+ *     that open the breaker (default 5)</li>
+ *     <li>{@code bookstore.resilience.breaker.cooldownMillis} / {@code RESILIENCE_BREAKER_COOLDOWN_MILLIS} - how long
+ *     it stays open (default 5000)</li>
+ * </ul>
+ */
+@Slf4j
+public final class ResilientReads {
+
+    private static final boolean ENABLED = Config.getBoolean("bookstore.resilience.enabled", "RESILIENCE_ENABLED", true);
+    private static final int MIN_SAMPLES = Config.getInt("bookstore.resilience.minSamples", "RESILIENCE_MIN_SAMPLES", 20);
+    private static final double HEDGE_PERCENTILE =
+            Config.getDouble("bookstore.resilience.hedgePercentile", "RESILIENCE_HEDGE_PERCENTILE", 95);
+    private static final double TIMEOUT_PERCENTILE =
+            Config.getDouble("bookstore.resilience.timeoutPercentile", "RESILIENCE_TIMEOUT_PERCENTILE", 99);
+    private static final double TIMEOUT_FACTOR =
+            Config.getDouble("bookstore.resilience.timeoutFactor", "RESILIENCE_TIMEOUT_FACTOR", 3);
+    private static final long MIN_TIMEOUT_MICROS = TimeUnit.MILLISECONDS.toMicros(
+            Config.getLong("bookstore.resilience.minTimeoutMillis", "RESILIENCE_MIN_TIMEOUT_MILLIS", 1_000));
+    private static final int MAX_RETRIES = Config.getInt("bookstore.resilience.maxRetries", "RESILIENCE_MAX_RETRIES", 2);
+
+    private static final long THRESHOLDS_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long BACKOFF_MILLIS = 50;
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final ThreadLocal<Boolean> DIRECT = ThreadLocal.withInitial(() -> false);
+    private static final ConcurrentMap<String, Thresholds> THRESHOLDS = new ConcurrentHashMap<>();
+    private static final RetryBudget BUDGET = new RetryBudget(
+            Config.getDouble("bookstore.resilience.retryBudget.ratio", "RESILIENCE_RETRY_BUDGET_RATIO", 0.1),
+            Config.getInt("bookstore.resilience.retryBudget.max", "RESILIENCE_RETRY_BUDGET_MAX", 10));
+    private static final CircuitBreaker BREAKER = new CircuitBreaker(
+            Config.getInt("bookstore.resilience.breaker.failures", "RESILIENCE_BREAKER_FAILURES", 5),
+            TimeUnit.MILLISECONDS.toNanos(
+                    Config.getLong("bookstore.resilience.breaker.cooldownMillis", "RESILIENCE_BREAKER_COOLDOWN_MILLIS", 5_000)));
+
+    private static final LongAdder READS = new LongAdder();
+    private static final LongAdder HEDGES = new LongAdder();
+    private static final LongAdder HEDGE_WINS = new LongAdder();
+    private static final LongAdder RETRIES = new LongAdder();
+    private static final LongAdder TIMEOUTS = new LongAdder();
+    private static final LongAdder BUDGET_EXHAUSTED = new LongAdder();
+    private static final LongAdder BREAKER_SKIPPED = new LongAdder();
+
+    private ResilientReads() {
+    }
+
+    /**
+     * @return whether reads are hedged and retried in this run
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns a snapshot of the layer's counters.
+     *
+     * @return resilience statistics
+     */
+    public static ResilienceStats stats() {
+        return new ResilienceStats(READS.sum(), HEDGES.sum(), HEDGE_WINS.sum(), RETRIES.sum(), TIMEOUTS.sum(),
+                BUDGET_EXHAUSTED.sum(), BREAKER_SKIPPED.sum(), BREAKER.openings.sum());
+    }
+
+    /**
+     * Point-in-time view of hedging, retries and the circuit breaker.
+     *
+     * @param reads           reads sent through the layer
+     * @param hedges          hedged duplicates sent
+     * @param hedgeWins       reads answered by the hedge rather than the original request
+     * @param retries         retries sent
+     * @param timeouts        attempts given up on after the derived timeout
+     * @param budgetExhausted hedges or retries not sent for lack of budget
+     * @param breakerSkipped  hedges or retries not sent because the breaker was open
+     * @param breakerOpenings times the breaker opened
+     */
+    public record ResilienceStats(long reads, long hedges, long hedgeWins, long retries, long timeouts,
+                                  long budgetExhausted, long breakerSkipped, long breakerOpenings) {
+    }
+
+    /**
+     * Runs the given reads as sent: once each, on the calling thread, with no hedge, derived timeout or retry.
+     *
+     * @param reads calls that read through the API clients
+     * @param <T>   result type
+     * @return what the reads returned
+     */
+    public static <T> T direct(Supplier<T> reads) {
+        boolean outer = DIRECT.get();
+        DIRECT.set(true);
+        try {
+            return reads.get();
+        } finally {
+            DIRECT.set(outer);
+        }
+    }
+
+    /**
+     * Sends an idempotent read through the layer.
+     *
+     * @param route   route template the latencies are recorded under, e.g. {@code /api/v1/Books/{id}}
+     * @param request sends the request once; may be called several times, also concurrently
+     * @return the first acceptable response, or the last response or failure once retries are used up
+     */
+    static Response get(String route, Supplier<Response> request) {
+        if (!ENABLED || DIRECT.get()) {
+            return request.get();
+        }
+        READS.increment();
+        BUDGET.deposit();
+        for (int attempt = 0; ; attempt++) {
+            Thresholds thresholds = thresholds(route);
+            Outcome outcome = thresholds == null ? Outcome.of(request) : race(route, request, thresholds);
+            if (outcome.succeeded()) {
+                BREAKER.success();
+                return outcome.response();
+            }
+            BREAKER.failure();
+            if (attempt >= MAX_RETRIES || !mayAddRequest()) {
+                return outcome.get();
+            }
+            RETRIES.increment();
+            log.debug("Retrying GET {} after {}", route, outcome);
+            backOff(attempt);
+        }
+    }
+
+    /**
+     * Sends the request on a virtual thread, hedges it once the hedge delay passes and waits until the timeout.
+     */
+    private static Outcome race(String route, Supplier<Response> request, Thresholds thresholds) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<Response> primary = CompletableFuture.supplyAsync(request, EXECUTOR);
+        CompletableFuture<Response> first = primary;
+        if (!await(primary, thresholds.hedgeAfterMicros()) && mayAddRequest()) {
+            HEDGES.increment();
+            log.debug("Hedging GET {} after {} us", route, thresholds.hedgeAfterMicros());
+            first = firstAcceptable(primary, CompletableFuture.supplyAsync(request, EXECUTOR));
+        }
+        long leftMicros = thresholds.timeoutMicros() - TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        if (!await(first, Math.max(0, leftMicros))) {
+            TIMEOUTS.increment();
+            return Outcome.timedOut(route, thresholds.timeoutMicros());
+        }
+        try {
+            return Outcome.of(first.get());
+        } catch (ExecutionException e) {
+            return Outcome.failed(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for GET " + route, e);
+        }
+    }
+
+    /**
+     * Completes with the first response that needs no retry, or, when neither does, with whichever finished last.
+     */
+    private static CompletableFuture<Response> firstAcceptable(CompletableFuture<Response> primary,
+                                                               CompletableFuture<Response> hedge) {
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        primary.whenComplete((response, error) -> offer(first, pending, response, error, false));
+        hedge.whenComplete((response, error) -> offer(first, pending, response, error, true));
+        return first;
+    }
+
+    private static void offer(CompletableFuture<Response> first, AtomicInteger pending,
+                              Response response, Throwable error, boolean hedge) {
+        boolean acceptable = error == null && !retryable(response.statusCode());
+        boolean last = pending.decrementAndGet() == 0;
+        if (!acceptable && !last) {
+            return;
+        }
+        boolean won = error == null ? first.complete(response) : first.completeExceptionally(error);
+        if (won && acceptable && hedge) {
+            HEDGE_WINS.increment();
+        }
+    }
+
+    /**
+     * @return whether the future completed within the wait
+     */
+    private static boolean await(CompletableFuture<Response> future, long micros) {
+        try {
+            future.get(micros, TimeUnit.MICROSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a response", e);
+        }
+    }
+
+    private static boolean mayAddRequest() {
+        if (!BREAKER.allowsExtraRequests()) {
+            BREAKER_SKIPPED.increment();
+            return false;
+        }
+        if (!BUDGET.withdraw()) {
+            BUDGET_EXHAUSTED.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private static void backOff(int attempt) {
+        long millis = BACKOFF_MILLIS << attempt;
+        try {
+            Thread.sleep(millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off", e);
+        }
+    }
+
+    private static boolean retryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /**
+     * Returns the route's hedge delay and timeout, or {@code null} while it has too few successful responses.
+     */
+    private static Thresholds thresholds(String route) {
+        long now = System.nanoTime();
+        Thresholds cached = THRESHOLDS.get(route);
+        if (cached != null && now - cached.computedNanos() < THRESHOLDS_TTL_NANOS) {
+            return cached.hedgeAfterMicros() < 0 ? null : cached;
+        }
+        LatencyHistogram latencies = EndpointLatencies.histogram("GET", route, 200);
+        Thresholds thresholds;
+        if (latencies == null || latencies.count() < MIN_SAMPLES) {
+            thresholds = new Thresholds(-1, -1, now);
+        } else {
+            long maxMicros = TimeUnit.MILLISECONDS.toMicros(SharedHttpClient.socketTimeoutMillis());
+            long timeout = Math.clamp((long) (latencies.percentile(TIMEOUT_PERCENTILE) * TIMEOUT_FACTOR),
+                    Math.min(MIN_TIMEOUT_MICROS, maxMicros), maxMicros);
+            thresholds = new Thresholds(Math.min(latencies.percentile(HEDGE_PERCENTILE), timeout), timeout, now);
+        }
+        THRESHOLDS.put(route, thresholds);
+        return thresholds.hedgeAfterMicros() < 0 ? null : thresholds;
+    }
+
+    /**
+     * @param hedgeAfterMicros delay before a hedge is sent, -1 while the route has too few samples
+     * @param timeoutMicros    time after which an attempt counts as failed
+     * @param computedNanos    when the thresholds were derived
+     */
+    private record Thresholds(long hedgeAfterMicros, long timeoutMicros, long computedNanos) {
+    }
+
+    /**
+     * The result of one attempt: a response, or the failure that stopped it.
+     */
+    private record Outcome(Response response, RuntimeException failure) {
+
+        static Outcome of(Supplier<Response> request) {
+            try {
+                return of(request.get());
+            } catch (RuntimeException e) {
+                return new Outcome(null, e);
+            }
+        }
+
+        static Outcome of(Response response) {
+            return new Outcome(response, null);
+        }
+
+        static Outcome failed(Throwable cause) {
+            if (cause instanceof RuntimeException runtimeException) {
+                return new Outcome(null, runtimeException);
+            }
+            // Errors such as a failed schema check are verdicts, not transient failures
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            return new Outcome(null, new IllegalStateException(cause));
+        }
+
+        static Outcome timedOut(String route, long timeoutMicros) {
+            return new Outcome(null, new IllegalStateException(
+                    "GET " + route + " did not respond within " + timeoutMicros / 1_000 + " ms"));
+        }
+
+        boolean succeeded() {
+            return response != null && !retryable(response.statusCode());
+        }
+
+        /**
+         * @return the response, even an unsuccessful one, for the caller to assert on
+         * @throws RuntimeException the failure if there was no response
+         */
+        Response get() {
+            if (response == null) {
+                throw failure;
+            }
+            return response;
+        }
+
+        @Override
+        public String toString() {
+            return response != null ? "HTTP " + response.statusCode() : failure.getMessage();
+        }
+    }
+
+    /**
+     * Every read adds {@code ratio} tokens up to {@code max}; each hedge or retry takes one whole token.
+     * Kept in thousandths of a token so it fits a single atomic long.
+     */
+    private static final class RetryBudget {
+
+        private final long depositMillis;
+        private final long maxMillis;
+        private final AtomicLong balanceMillis;
+
+        RetryBudget(double ratio, int max) {
+            this.depositMillis = Math.round(ratio * 1_000);
+            this.maxMillis = max * 1_000L;
+            this.balanceMillis = new AtomicLong(maxMillis);
+        }
+
+        void deposit() {
+            if (balanceMillis.get() < maxMillis) {
+                balanceMillis.accumulateAndGet(depositMillis, (balance, deposit) -> Math.min(maxMillis, balance + deposit));
+            }
+        }
+
+        boolean withdraw() {
+            long balance;
+            do {
+                balance = balanceMillis.get();
+                if (balance < 1_000) {
+                    return false;
+                }
+            } while (!balanceMillis.compareAndSet(balance, balance - 1_000));
+            return true;
+        }
+    }
+
+    /**
+     * Opens after {@code threshold} consecutive failures and stays open for the cool-down. Once it has passed,
+     * the next failure opens it again straight away, while a success closes it.
+     */
+    private static final class CircuitBreaker {
+
+        private final int threshold;
+        private final long cooldownNanos;
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final LongAdder openings = new LongAdder();
+        private volatile long openUntilNanos = System.nanoTime();
+
+        CircuitBreaker(int threshold, long cooldownNanos) {
+            this.threshold = threshold;
+            this.cooldownNanos = cooldownNanos;
+        }
+
+        void success() {
+            if (consecutiveFailures.get() != 0) {
+                consecutiveFailures.set(0);
+            }
+        }
+
+        void failure() {
+            if (consecutiveFailures.incrementAndGet() >= threshold) {
+                long now = System.nanoTime();
+                if (now - openUntilNanos >= 0) {
+                    openings.increment();
+                    log.warn("Backend unhealthy after {} consecutive failed reads, no hedges or retries for {} ms",
+                            consecutiveFailures.get(), TimeUnit.NANOSECONDS.toMillis(cooldownNanos));
+                }
+                openUntilNanos = now + cooldownNanos;
+            }
+        }
+
+        boolean allowsExtraRequests() {
+            return System.nanoTime() - openUntilNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.utils.Config;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps track of every item created through a {@link BaseApi} and deletes it off the scenario's critical path.
+ * <ul>
+ *     <li>Successful creates are registered; successful (or 404) deletes unregister the item again.</li>
+ *     <li>{@link #release} queues whatever an API instance still owns. A background thread deletes the queue
+ *     in parallel batches, through the owning instance so stub sessions are respected.</li>
+ *     <li>Once an instance's deletes are done its stub session is ended, so the stub does not keep every finished
+ *     scenario's writes (see {@link BaseApi#endStubSession()}).</li>
+ *     <li>{@link #sweep} releases everything still registered, waits for the queue to drain and reports leftovers.</li>
+ * </ul>
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.cleanup.batchSize} / {@code CLEANUP_BATCH_SIZE} - deletes sent in parallel (default 16)</li>
+ *     <li>{@code bookstore.cleanup.timeoutSeconds} / {@code CLEANUP_TIMEOUT_SECONDS} - sweep wait limit (default 30)</li>
+ * </ul>
+ */
+@Slf4j
+public final class ResourceJanitor {
+
+    private static final int BATCH_SIZE = Config.getInt("bookstore.cleanup.batchSize", "CLEANUP_BATCH_SIZE", 16);
+    private static final long TIMEOUT_SECONDS = Config.getLong("bookstore.cleanup.timeoutSeconds", "CLEANUP_TIMEOUT_SECONDS", 30);
+
+    private static final Set<Resource> REGISTERED = ConcurrentHashMap.newKeySet();
+    private static final Set<Resource> LEAKED = ConcurrentHashMap.newKeySet();
+    private static final BlockingQueue<Resource> QUEUE = new LinkedBlockingQueue<>();
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private static final Condition DRAINED = LOCK.newCondition();
+    private static int pending;
+
+    private static final LongAdder DELETED = new LongAdder();
+    private static volatile Thread deleter;
+
+    private ResourceJanitor() {
+    }
+
+    /**
+     * An item created through {@code owner}.
+     *
+     * @param owner the API instance that created it, and will delete it
+     * @param path  collection path, e.g. {@code /api/v1/Books}
+     * @param id    item id
+     */
+    public record Resource(BaseApi owner, String path, int id) {
+
+        /**
+         * Queued after the items of a released instance, to end its stub session once they are deleted.
+         */
+        static Resource sessionEnd(BaseApi owner) {
+            return new Resource(owner, null, 0);
+        }
+
+        boolean endsSession() {
+            return path == null;
+        }
+
+        @Override
+        public String toString() {
+            return endsSession() ? "end of session" : path + "/" + id;
+        }
+    }
+
+    static void registered(BaseApi owner, String path, int id) {
+        REGISTERED.add(new Resource(owner, path, id));
+    }
+
+    static void deleted(BaseApi owner, String path, int id) {
+        REGISTERED.remove(new Resource(owner, path, id));
+    }
+
+    /**
+     * Queues every item still owned by the given API instances for deletion and returns immediately.
+     *
+     * @param owners API instances whose items are no longer needed
+     */
+    public static void release(BaseApi... owners) {
+        Set<BaseApi> released = Set.of(owners);
+        List<Resource> batch = new ArrayList<>();
+        REGISTERED.removeIf(resource -> released.contains(resource.owner()) && batch.add(resource));
+        released.forEach(owner -> batch.add(Resource.sessionEnd(owner)));
+        enqueue(batch);
+    }
+
+    /**
+     * Releases every registered item, waits for queued deletes to finish and logs anything that could not be deleted.
+     *
+     * @return items left behind on the server
+     */
+    public static List<Resource> sweep() {
+        List<Resource> remaining = new ArrayList<>();
+        REGISTERED.removeIf(remaining::add);
+        enqueue(remaining);
+
+        LOCK.lock();
+        try {
+            long waitNanos = TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (pending > 0 && waitNanos > 0) {
+                waitNanos = DRAINED.awaitNanos(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            LOCK.unlock();
+        }
+
+        List<Resource> leftovers = new ArrayList<>(LEAKED);
+        QUEUE.stream().filter(resource -> !resource.endsSession()).forEach(leftovers::add);
+        if (leftovers.isEmpty()) {
+            log.info("Cleanup: {} items deleted, nothing left behind", DELETED.sum());
+        } else {
+            log.warn("Cleanup: {} items deleted, {} left behind: {}", DELETED.sum(), leftovers.size(), leftovers);
+        }
+        return leftovers;
+    }
+
+    private static void enqueue(List<Resource> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+        LOCK.lock();
+        try {
+            pending += resources.size();
+        } finally {
+            LOCK.unlock();
+        }
+        QUEUE.addAll(resources);
+        if (deleter == null) {
+            startDeleter();
+        }
+    }
+
+    private static synchronized void startDeleter() {
+        if (deleter == null) {
+            deleter = Thread.ofPlatform()
+                    .name("resource-janitor")
+                    .daemon(true)
+                    .start(ResourceJanitor::deleteQueued);
+        }
+    }
+
+    private static void deleteQueued() {
+        List<Resource> batch = new ArrayList<>(BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            QUEUE.drainTo(batch, BATCH_SIZE - 1);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                batch.stream().filter(resource -> !resource.endsSession())
+                        .forEach(resource -> executor.submit(() -> delete(resource)));
+            }
+            // Queued behind their instance's items, which are all deleted by now, in this batch or an earlier one
+            batch.stream().filter(Resource::endsSession).forEach(resource -> resource.owner().endStubSession());
+            LOCK.lock();
+            try {
+                pending -= batch.size();
+                if (pending == 0) {
+                    DRAINED.signalAll();
+                }
+            } finally {
+                LOCK.unlock();
+            }
+            batch.clear();
+        }
+    }
+
+    private static void delete(Resource resource) {
+        try {
+            Response response = resource.owner().deleteInBackground(resource.path(), resource.id());
+            int status = response.statusCode();
+            if (status / 100 == 2 || status == 404) {
+                DELETED.increment();
+                return;
+            }
+            log.warn("Could not delete {}: HTTP {}", resource, status);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete {}: {}", resource, e.getMessage());
+        }
+        LEAKED.add(resource);
+    }
+}
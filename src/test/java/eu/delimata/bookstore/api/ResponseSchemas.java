@@ -0,0 +1,251 @@
+package eu.delimata.bookstore.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import eu.delimata.bookstore.support.JsonIdScanner;
+import eu.delimata.bookstore.utils.Config;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.StreamSupport;
+
+/**
+ * Checks every successful response body of the bookstore endpoints against its JSON schema
+ * ({@code src/test/resources/schemas}), shared by every {@link BaseApi} instance.
+ * <ul>
+ *     <li>Schemas are compiled once per JVM; a compiled schema is immutable, so all scenarios share it.</li>
+ *     <li>{@code GET} on a collection is checked against the list schema, any other body against the item schema.
+ *     Error responses and empty bodies are not checked.</li>
+ *     <li>Lists above {@code streamAboveBytes} are checked item by item while streaming through the array,
+ *     so only one item is ever held as a tree.</li>
+ *     <li>A list the caller streams itself (see {@link PooledConnectionFilter#UNBUFFERED}) can only be read once, so
+ *     the filter leaves it alone and the caller reads it through {@link #containsId}, which checks every item
+ *     while looking for an id.</li>
+ * </ul>
+ * A violation fails the request with an {@link AssertionError} naming the schema and the offending fields.
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.schema.validation} / {@code SCHEMA_VALIDATION} - check responses (default true)</li>
+ *     <li>{@code bookstore.schema.streamAboveBytes} / {@code SCHEMA_STREAM_ABOVE_BYTES} - list size from which
+ *     items are checked one at a time (default 262144)</li>
+ * </ul>
+ */
+public final class ResponseSchemas {
+
+    private static final boolean ENABLED = Config.getBoolean("bookstore.schema.validation", "SCHEMA_VALIDATION", true);
+    private static final int STREAM_ABOVE_BYTES =
+            Config.getInt("bookstore.schema.streamAboveBytes", "SCHEMA_STREAM_ABOVE_BYTES", 262_144);
+
+    private static final int REPORTED_PROBLEMS = 5;
+
+    private static final Filter FILTER = ResponseSchemas::filter;
+
+    private static final LongAdder VALIDATED = new LongAdder();
+    private static final LongAdder STREAMED = new LongAdder();
+    private static final LongAdder VIOLATIONS = new LongAdder();
+
+    private ResponseSchemas() {
+    }
+
+    /**
+     * @return whether responses are checked in this run
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the RestAssured filter that checks response bodies.
+     *
+     * @return the schema filter
+     */
+    static Filter filter() {
+        return FILTER;
+    }
+
+    /**
+     * Returns a snapshot of the validation counters.
+     *
+     * @return validation statistics
+     */
+    public static SchemaStats stats() {
+        return new SchemaStats(VALIDATED.sum(), STREAMED.sum(), VIOLATIONS.sum());
+    }
+
+    /**
+     * Point-in-time view of response validation.
+     *
+     * @param validated  response bodies checked
+     * @param streamed   of which lists checked item by item
+     * @param violations bodies that did not match their schema
+     */
+    public record SchemaStats(long validated, long streamed, long violations) {
+    }
+
+    private static Response filter(FilterableRequestSpecification requestSpec,
+                                   FilterableResponseSpecification responseSpec,
+                                   FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        if (response.statusCode() / 100 != 2 || requestSpec.getDefinedFilters().contains(PooledConnectionFilter.UNBUFFERED)) {
+            return response;
+        }
+        String path = requestSpec.getUserDefinedPath();
+        int template = path.indexOf("/{");
+        ResourceSchemas schemas = Schemas.BY_RESOURCE.get(template < 0 ? path : path.substring(0, template));
+        byte[] body = response.asByteArray();
+        if (schemas == null || body.length == 0) {
+            return response;
+        }
+        boolean list = template < 0 && "GET".equals(requestSpec.getMethod());
+        String route = requestSpec.getMethod() + " " + path;
+        if (list && body.length > STREAM_ABOVE_BYTES) {
+            validateItems(body, schemas, route);
+        } else {
+            validate(readTree(body), list ? schemas.list : schemas.item, list ? schemas.listName : schemas.itemName, route);
+        }
+        VALIDATED.increment();
+        return response;
+    }
+
+    /**
+     * Looks for an item id in a list body streamed by the caller, checking each item against the item schema on
+     * the way. The whole array is read, so every item is checked whether or not the id turns up early; the
+     * connection has to be drained before reuse anyway. Falls back to {@link JsonIdScanner} when validation is off
+     * or {@code path} has no schema.
+     *
+     * @param path the list endpoint the body came from
+     * @param body the unread body; it is closed before returning
+     * @param id   the id to look for
+     * @return whether the list contains an item with the id
+     */
+    static boolean containsId(String path, InputStream body, int id) {
+        ResourceSchemas schemas = ENABLED ? Schemas.BY_RESOURCE.get(path) : null;
+        if (schemas == null) {
+            return JsonIdScanner.containsId(body, id);
+        }
+        String route = "GET " + path;
+        boolean[] found = new boolean[1];
+        try (JsonParser parser = BookstoreJson.mapper().createParser(body)) {
+            validateItems(parser, schemas, route, item -> {
+                JsonNode itemId = item.get("id");
+                found[0] |= itemId != null && itemId.isInt() && itemId.intValue() == id;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the response of " + route, e);
+        }
+        VALIDATED.increment();
+        return found[0];
+    }
+
+    /**
+     * Walks the array with a streaming parser and checks each item on its own.
+     */
+    private static void validateItems(byte[] body, ResourceSchemas schemas, String route) {
+        try (JsonParser parser = BookstoreJson.mapper().createParser(body)) {
+            validateItems(parser, schemas, route, item -> {
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not parse the response of " + route, e);
+        }
+    }
+
+    private static void validateItems(JsonParser parser, ResourceSchemas schemas, String route,
+                                      Consumer<JsonNode> eachItem) throws IOException {
+        STREAMED.increment();
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            violation(route, schemas.listName, "expected an array but got " + parser.currentToken());
+        }
+        int index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            JsonNode item = parser.readValueAsTree();
+            validate(item, schemas.item, schemas.itemName + " (item " + index++ + ")", route);
+            eachItem.accept(item);
+        }
+    }
+
+    private static void validate(JsonNode json, JsonSchema schema, String schemaName, String route) {
+        ProcessingReport report;
+        try {
+            report = schema.validate(json);
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Could not validate the response of " + route + " against " + schemaName, e);
+        }
+        if (!report.isSuccess()) {
+            List<String> problems = StreamSupport.stream(report.spliterator(), false)
+                    .map(ResponseSchemas::describe)
+                    .toList();
+            String details = String.join("; ", problems.subList(0, Math.min(problems.size(), REPORTED_PROBLEMS)));
+            violation(route, schemaName, problems.size() > REPORTED_PROBLEMS
+                    ? details + "; ... and " + (problems.size() - REPORTED_PROBLEMS) + " more"
+                    : details);
+        }
+    }
+
+    private static void violation(String route, String schemaName, String details) {
+        VIOLATIONS.increment();
+        throw new AssertionError("Response of " + route + " does not match schema " + schemaName + ": " + details);
+    }
+
+    private static String describe(ProcessingMessage message) {
+        String pointer = message.asJson().path("instance").path("pointer").asText();
+        return (pointer.isEmpty() ? "/" : pointer) + " " + message.getMessage();
+    }
+
+    private static JsonNode readTree(byte[] body) {
+        try {
+            return BookstoreJson.mapper().readTree(body);
+        } catch (IOException e) {
+            throw new AssertionError("Response body is not valid JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The compiled item and list schema of one collection.
+     */
+    private record ResourceSchemas(String itemName, JsonSchema item, String listName, JsonSchema list) {
+
+        static ResourceSchemas load(JsonSchemaFactory factory, String itemName, String listName) {
+            return new ResourceSchemas(itemName, compile(factory, itemName), listName, compile(factory, listName));
+        }
+
+        private static JsonSchema compile(JsonSchemaFactory factory, String name) {
+            try {
+                return factory.getJsonSchema("resource:/schemas/" + name);
+            } catch (ProcessingException e) {
+                throw new IllegalStateException("Could not load JSON schema " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Compiled on first use, so runs with validation off never load the schema library.
+     */
+    private static final class Schemas {
+
+        private static final Map<String, ResourceSchemas> BY_RESOURCE = load();
+
+        private static Map<String, ResourceSchemas> load() {
+            JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
+            return Map.of(
+                    BooksApi.BOOKS, ResourceSchemas.load(factory, "book.json", "books.json"),
+                    AuthorsApi.AUTHORS, ResourceSchemas.load(factory, "author.json", "authors.json"));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.utils.Config;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.internal.http.ContentEncoding;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+import org.apache.http.util.EntityUtils;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide, thread-safe HTTP client shared by every {@link BaseApi} instance.
+ * Connections are kept alive in a bounded pool and a single {@link SSLContext} is used,
+ * so TLS sessions are resumed instead of renegotiated when a new connection is opened.
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.http.pool.maxTotal} / {@code HTTP_POOL_MAX_TOTAL} - pool size (default 32)</li>
+ *     <li>{@code bookstore.http.pool.maxPerRoute} / {@code HTTP_POOL_MAX_PER_ROUTE} - connections per host (default 16)</li>
+ *     <li>{@code bookstore.http.keepAliveMillis} / {@code HTTP_KEEP_ALIVE_MILLIS} - idle keep-alive (default 30000)</li>
+ *     <li>{@code bookstore.http.connectTimeoutMillis} / {@code HTTP_CONNECT_TIMEOUT_MILLIS} - connect and lease timeout (default 5000)</li>
+ *     <li>{@code bookstore.http.socketTimeoutMillis} / {@code HTTP_SOCKET_TIMEOUT_MILLIS} - read timeout (default 10000)</li>
+ * </ul>
+ */
+@Slf4j
+@SuppressWarnings("deprecation") // RestAssured only accepts the legacy AbstractHttpClient API
+public final class SharedHttpClient {
+
+    private static final int CONNECT_TIMEOUT_MILLIS =
+            Config.getInt("bookstore.http.connectTimeoutMillis", "HTTP_CONNECT_TIMEOUT_MILLIS", 5_000);
+    private static final int SOCKET_TIMEOUT_MILLIS =
+            Config.getInt("bookstore.http.socketTimeoutMillis", "HTTP_SOCKET_TIMEOUT_MILLIS", 10_000);
+
+    private static final int MAX_PER_ROUTE = Config.getInt("bookstore.http.pool.maxPerRoute", "HTTP_POOL_MAX_PER_ROUTE", 16);
+    private static final ConcurrentMap<String, Semaphore> ROUTE_PERMITS = new ConcurrentHashMap<>();
+
+    private static final CountingConnectionManager CONNECTION_MANAGER = createConnectionManager();
+    private static final PooledHttpClient CLIENT = createClient();
+
+    private static final HttpClientConfig HTTP_CLIENT_CONFIG = HttpClientConfig.httpClientConfig()
+            .httpClientFactory(() -> CLIENT)
+            .reuseHttpClientInstance()
+            .setParam(CoreConnectionPNames.CONNECTION_TIMEOUT, CONNECT_TIMEOUT_MILLIS)
+            .setParam(CoreConnectionPNames.SO_TIMEOUT, SOCKET_TIMEOUT_MILLIS)
+            .setParam(ClientPNames.CONN_MANAGER_TIMEOUT, (long) CONNECT_TIMEOUT_MILLIS);
+
+    private SharedHttpClient() {
+    }
+
+    /**
+     * Returns the RestAssured client configuration that routes requests through the shared pool.
+     *
+     * @return shared http client configuration
+     */
+    public static HttpClientConfig httpClientConfig() {
+        return HTTP_CLIENT_CONFIG;
+    }
+
+    static int connectTimeoutMillis() {
+        return CONNECT_TIMEOUT_MILLIS;
+    }
+
+    static int socketTimeoutMillis() {
+        return SOCKET_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Waits for one of the route's {@code maxPerRoute} permits, so callers park (virtual-thread friendly)
+     * instead of blocking inside HttpClient's pool. The caller must release the permit.
+     *
+     * @param baseUri base URI of the request, e.g. {@code https://fakerestapi.azurewebsites.net}
+     * @param port    port of the request
+     * @return the acquired route semaphore
+     */
+    static Semaphore acquireRoutePermit(String baseUri, int port) {
+        Semaphore permits = ROUTE_PERMITS.computeIfAbsent(baseUri + ":" + port, route -> new Semaphore(MAX_PER_ROUTE, true));
+        try {
+            if (!permits.tryAcquire(CONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Timed out after " + CONNECT_TIMEOUT_MILLIS
+                        + " ms waiting for a pooled connection to " + baseUri + ":" + port);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled connection", e);
+        }
+        return permits;
+    }
+
+    /**
+     * Returns a snapshot of the connection pool.
+     *
+     * @return pool statistics
+     */
+    public static ConnectionPoolStats stats() {
+        PoolStats total = CONNECTION_MANAGER.getTotalStats();
+        return new ConnectionPoolStats(total.getLeased(), total.getAvailable(), total.getPending(), total.getMax(),
+                CONNECTION_MANAGER.created());
+    }
+
+    /**
+     * Point-in-time view of the shared connection pool.
+     *
+     * @param leased  connections currently executing a request
+     * @param idle    open connections waiting in the pool for reuse
+     * @param pending requests waiting for a connection
+     * @param max     pool capacity
+     * @param created connections opened since start-up
+     */
+    public record ConnectionPoolStats(int leased, int idle, int pending, int max, long created) {
+    }
+
+    private static CountingConnectionManager createConnectionManager() {
+        SSLContext sslContext = SSLContexts.createSystemDefault();
+        SchemeRegistry registry = new SchemeRegistry();
+        registry.register(new Scheme("http", 80, PlainSocketFactory.getSocketFactory()));
+        registry.register(new Scheme("https", 443,
+                new SSLSocketFactory(sslContext, SSLSocketFactory.BROWSER_COMPATIBLE_HOSTNAME_VERIFIER)));
+
+        CountingConnectionManager manager = new CountingConnectionManager(registry);
+        manager.setMaxTotal(Config.getInt("bookstore.http.pool.maxTotal", "HTTP_POOL_MAX_TOTAL", 32));
+        manager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+        return manager;
+    }
+
+    private static PooledHttpClient createClient() {
+        long keepAliveMillis = Config.getLong("bookstore.http.keepAliveMillis", "HTTP_KEEP_ALIVE_MILLIS", 30_000);
+        PooledHttpClient client = new PooledHttpClient(CONNECTION_MANAGER);
+        client.setKeepAliveStrategy((response, context) -> {
+            long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return announced > 0 ? Math.min(announced, keepAliveMillis) : keepAliveMillis;
+        });
+        log.info("Shared HTTP client: pool {}/{} per route, keep-alive {} ms",
+                CONNECTION_MANAGER.getMaxTotal(), CONNECTION_MANAGER.getDefaultMaxPerRoute(), keepAliveMillis);
+        return client;
+    }
+
+    /**
+     * Pooling connection manager that counts physically opened connections.
+     */
+    private static final class CountingConnectionManager extends PoolingClientConnectionManager {
+
+        private final LongAdder created = new LongAdder();
+
+        private CountingConnectionManager(SchemeRegistry registry) {
+            super(registry);
+        }
+
+        long created() {
+            return created.sum();
+        }
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry registry) {
+            return new DefaultClientConnectionOperator(registry) {
+                @Override
+                public OperatedClientConnection createConnection() {
+                    created.increment();
+                    return super.createConnection();
+                }
+            };
+        }
+    }
+
+    /**
+     * RestAssured removes and re-adds its content-encoding interceptors before every request,
+     * which would race between threads on a shared client. Its interceptors are ignored and
+     * HttpClient's own gzip/deflate handling is installed once instead.
+     */
+    private static final class PooledHttpClient extends DefaultHttpClient {
+
+        private PooledHttpClient(PoolingClientConnectionManager connectionManager) {
+            super(connectionManager);
+            super.addRequestInterceptor(new RequestAcceptEncoding());
+            super.addResponseInterceptor(new ResponseContentEncoding());
+            super.addResponseInterceptor(PooledHttpClient::releaseEmptyEntity);
+        }
+
+        /**
+         * RestAssured never reads zero-length bodies (e.g. a DELETE answered with 200 and no content),
+         * which would keep their connection leased. A non-streaming entity lets it go back to the pool at once.
+         */
+        private static void releaseEmptyEntity(HttpResponse response, HttpContext context) throws IOException {
+            HttpEntity entity = response.getEntity();
+            if (entity != null && entity.isStreaming() && entity.getContentLength() == 0) {
+                EntityUtils.consume(entity);
+                ByteArrayEntity empty = new ByteArrayEntity(new byte[0]);
+                empty.setContentType(entity.getContentType());
+                response.setEntity(empty);
+            }
+        }
+
+        @Override
+        public synchronized void addRequestInterceptor(HttpRequestInterceptor interceptor) {
+            if (!isRestAssuredContentEncoding(interceptor)) {
+                super.addRequestInterceptor(interceptor);
+            }
+        }
+
+        @Override
+        public synchronized void addResponseInterceptor(HttpResponseInterceptor interceptor) {
+            if (!isRestAssuredContentEncoding(interceptor)) {
+                super.addResponseInterceptor(interceptor);
+            }
+        }
+
+        private static boolean isRestAssuredContentEncoding(Object interceptor) {
+            Class<?> enclosing = interceptor.getClass().getEnclosingClass();
+            return enclosing != null && ContentEncoding.class.isAssignableFrom(enclosing);
+        }
+    }
+}
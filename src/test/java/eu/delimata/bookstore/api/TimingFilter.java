@@ -0,0 +1,53 @@
+package eu.delimata.bookstore.api;
+
+import eu.delimata.bookstore.metrics.EndpointLatencies;
+import eu.delimata.bookstore.metrics.RequestWindow;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Measures every request of one {@link BaseApi} instance, from the moment it is sent until its body is buffered.
+ * Each measurement goes to the process-wide {@link EndpointLatencies} and {@link RequestWindow} and to an optional listener;
+ * responses served by the {@link ReadCache} only reach the listener, as they say nothing about the server.
+ *
+ * <p>It stands in for RestAssured's own timing filter, so {@link Response#time()} reports the same measurement.</p>
+ *
+ * <p>Recording into the histograms does not allocate, but the filter itself is not allocation-free: RestAssured reads
+ * the response time back as a boxed value.</p>
+ */
+class TimingFilter extends io.restassured.filter.time.TimingFilter {
+
+    private volatile LongConsumer listener = millis -> {
+    };
+
+    void setListener(LongConsumer listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } catch (RuntimeException e) {
+            RequestWindow.recordFailure((System.nanoTime() - start) / 1_000);
+            throw e;
+        }
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        ctx.setValue(RESPONSE_TIME_MILLISECONDS, micros / 1_000);
+        listener.accept(micros / 1_000);
+        if (!ctx.hasValue(ReadCache.CACHED)) {
+            EndpointLatencies.record(requestSpec.getMethod(), requestSpec.getUserDefinedPath(), response.statusCode(), micros);
+            RequestWindow.record(micros, response.statusCode());
+        }
+        return response;
+    }
+}
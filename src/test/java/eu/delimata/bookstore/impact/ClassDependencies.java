@@ -0,0 +1,99 @@
+package eu.delimata.bookstore.impact;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the project classes a class can reach, by reading the constant pools of the compiled classes.
+ * Every project type named anywhere in a class (references, field types, method signatures) counts.
+ * Shared-state holders such as {@code BookstoreWorld} are reached but not followed: what a step actually uses
+ * from them shows up in the step class itself, e.g. as the return type of {@code world.getAuthorsApi()}.
+ */
+final class ClassDependencies {
+
+    private static final Pattern PROJECT_CLASS = Pattern.compile("eu/delimata/bookstore/[\\w/$]+");
+
+    private final Set<String> leaves;
+    private final Map<String, Set<String>> direct = new HashMap<>();
+
+    /**
+     * @param leaves classes that are included when reached, but whose own references are not followed
+     */
+    ClassDependencies(Set<String> leaves) {
+        this.leaves = leaves;
+    }
+
+    /**
+     * Returns the given classes and every project class reachable from them.
+     *
+     * @param classNames binary class names, e.g. {@code eu.delimata.bookstore.stepdefinitions.BooksSteps}
+     * @return reachable class names, including nested classes
+     */
+    Set<String> reachableFrom(Collection<String> classNames) {
+        Set<String> reached = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>(classNames);
+        while (!pending.isEmpty()) {
+            String className = pending.pop();
+            if (reached.add(className) && !leaves.contains(className)) {
+                pending.addAll(directReferences(className));
+            }
+        }
+        return reached;
+    }
+
+    private Set<String> directReferences(String className) {
+        return direct.computeIfAbsent(className, name -> {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            try (InputStream classFile = loader.getResourceAsStream(name.replace('.', '/') + ".class")) {
+                return classFile == null ? Set.of() : referencedClasses(classFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read class file of " + name, e);
+            }
+        });
+    }
+
+    /**
+     * Collects project class names from the constant pool; see JVMS §4.4 for the entry layout.
+     */
+    static Set<String> referencedClasses(InputStream classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(classFile));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.skipNBytes(4);
+        int count = in.readUnsignedShort();
+        Set<String> names = new TreeSet<>();
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> {
+                    Matcher matcher = PROJECT_CLASS.matcher(in.readUTF());
+                    while (matcher.find()) {
+                        names.add(matcher.group().replace('/', '.'));
+                    }
+                }
+                case 7, 8, 16, 19, 20 -> in.skipNBytes(2);
+                case 15 -> in.skipNBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+                case 5, 6 -> {
+                    in.skipNBytes(8);
+                    i++;
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,123 @@
+package eu.delimata.bookstore.impact;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.delimata.bookstore.utils.Config;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Which source files each scenario depends on, as recorded by {@link ImpactIndexPlugin}.
+ * Scenarios are keyed by feature URI and line, e.g. {@code classpath:eu/delimata/bookstore/books.feature:20};
+ * file paths are relative to the project directory.
+ */
+@Slf4j
+final class ImpactIndex {
+
+    static final String JAVA_SOURCES = "src/test/java/";
+    static final String FEATURE_SOURCES = "src/test/resources/";
+
+    private static final String CLASSPATH_SCHEME = "classpath:";
+
+    private final Path file;
+    private final Map<String, Entry> entries;
+
+    private ImpactIndex(Path file, Map<String, Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    /**
+     * The dependencies of one scenario.
+     *
+     * @param feature feature file the scenario is written in
+     * @param glue    step definition and hook methods it ran
+     * @param files   every source file it depends on, the feature file included
+     */
+    record Entry(String feature, List<String> glue, Set<String> files) {
+    }
+
+    /**
+     * Reads the index from {@code bookstore.impact.index}; a missing or unreadable file gives an empty index.
+     *
+     * @return the index
+     */
+    static ImpactIndex load() {
+        Path file = Path.of(Config.get("bookstore.impact.index", "IMPACT_INDEX", ".bookstore/impact-index.json"));
+        if (!Files.isRegularFile(file)) {
+            return new ImpactIndex(file, new TreeMap<>());
+        }
+        try {
+            return new ImpactIndex(file, new ObjectMapper().readValue(file.toFile(), new TypeReference<TreeMap<String, Entry>>() {
+            }));
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable impact index {}: {}", file, e.getMessage());
+            return new ImpactIndex(file, new TreeMap<>());
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    Entry get(String scenario) {
+        return entries.get(scenario);
+    }
+
+    void put(String scenario, Entry entry) {
+        entries.put(scenario, entry);
+    }
+
+    /**
+     * @return whether any recorded scenario depends on the file
+     */
+    boolean covers(String sourceFile) {
+        return entries.values().stream().anyMatch(entry -> entry.files().contains(sourceFile));
+    }
+
+    void save() {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), entries);
+        } catch (IOException e) {
+            log.error("Error: {}", e.getMessage());
+        }
+    }
+
+    static String scenarioKey(String featureUri, int line) {
+        return featureUri + ":" + line;
+    }
+
+    /**
+     * Maps a feature URI to its source, e.g. {@code classpath:eu/delimata/bookstore/books.feature} to
+     * {@code src/test/resources/eu/delimata/bookstore/books.feature}.
+     */
+    static String featureSource(String featureUri) {
+        return featureUri.startsWith(CLASSPATH_SCHEME)
+                ? FEATURE_SOURCES + featureUri.substring(CLASSPATH_SCHEME.length())
+                : featureUri;
+    }
+
+    /**
+     * Maps a class, nested or not, to the source file declaring it.
+     */
+    static String classSource(String className) {
+        int nested = className.indexOf('$');
+        String topLevel = nested < 0 ? className : className.substring(0, nested);
+        return JAVA_SOURCES + topLevel.replace('.', '/') + ".java";
+    }
+}
@@ -0,0 +1,70 @@
+package eu.delimata.bookstore.impact;
+
+import eu.delimata.bookstore.BookstoreWorld;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStep;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the impact index on every run: for each scenario that ran, the step definition and hook methods it went
+ * through, and every project source file those reach. Scenarios that did not run keep their previous entry.
+ * Registered as {@code cucumber.plugin} in {@code junit-platform.properties}; the index is read by
+ * {@link ImpactSelection}.
+ */
+@Slf4j
+public class ImpactIndexPlugin implements ConcurrentEventListener {
+
+    private final Map<String, TestCase> finished = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseFinished.class, event -> {
+            TestCase testCase = event.getTestCase();
+            finished.put(ImpactIndex.scenarioKey(testCase.getUri().toString(), testCase.getLocation().getLine()), testCase);
+        });
+        publisher.registerHandlerFor(TestRunFinished.class, event -> write());
+    }
+
+    private void write() {
+        if (finished.isEmpty()) {
+            return;
+        }
+        ClassDependencies dependencies = new ClassDependencies(Set.of(BookstoreWorld.class.getName()));
+        ImpactIndex index = ImpactIndex.load();
+        finished.forEach((scenario, testCase) -> {
+            List<String> glue = testCase.getTestSteps().stream()
+                    .map(TestStep::getCodeLocation)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            String feature = ImpactIndex.featureSource(testCase.getUri().toString());
+            Set<String> files = new TreeSet<>();
+            files.add(feature);
+            dependencies.reachableFrom(glue.stream().map(ImpactIndexPlugin::declaringClass).toList())
+                    .forEach(className -> files.add(ImpactIndex.classSource(className)));
+            index.put(scenario, new ImpactIndex.Entry(feature, glue, files));
+        });
+        index.save();
+        log.info("Impact index: {} scenarios recorded to {}", finished.size(), index.file());
+    }
+
+    /**
+     * Extracts the class from a code location such as {@code eu.delimata.bookstore.Hooks.cleanup()}.
+     */
+    private static String declaringClass(String codeLocation) {
+        int parameters = codeLocation.indexOf('(');
+        String method = parameters < 0 ? codeLocation : codeLocation.substring(0, parameters);
+        return method.substring(0, method.lastIndexOf('.'));
+    }
+}
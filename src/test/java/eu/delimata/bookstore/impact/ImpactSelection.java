@@ -0,0 +1,160 @@
+package eu.delimata.bookstore.impact;
+
+import eu.delimata.bookstore.utils.Config;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Narrows the discovered scenarios to those affected by a change, using the {@link ImpactIndex} of an earlier run.
+ * <ul>
+ *     <li>A scenario is kept when its feature file or any source file it depends on changed,
+ *     and always when the index has no entry for it (e.g. a new scenario).</li>
+ *     <li>Documentation-only changes affect nothing.</li>
+ *     <li>Everything runs when the changes cannot be listed, the index is empty, or a changed file is not
+ *     covered by the index (build files, configuration, engine code, classes added since the index was recorded).</li>
+ * </ul>
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.impact.select} / {@code IMPACT_SELECT} - run only affected scenarios (default false)</li>
+ *     <li>{@code bookstore.impact.base} / {@code IMPACT_BASE} - git revision to diff the working tree against
+ *     (default HEAD, i.e. uncommitted changes; use e.g. origin/main on CI)</li>
+ *     <li>{@code bookstore.impact.changedFiles} / {@code IMPACT_CHANGED_FILES} - comma-separated changed files,
+ *     used instead of git when set</li>
+ *     <li>{@code bookstore.impact.index} / {@code IMPACT_INDEX} - index file (default .bookstore/impact-index.json)</li>
+ * </ul>
+ */
+@Slf4j
+public final class ImpactSelection {
+
+    private static final Pattern NO_IMPACT = Pattern.compile("(?i).*\\.(md|png|jpe?g|gif|svg)|(.*/)?\\.gitignore|LICENSE");
+
+    private ImpactSelection() {
+    }
+
+    /**
+     * Removes the scenarios the current change cannot affect from the discovered tree. A no-op unless switched on.
+     *
+     * @param root the discovered engine descriptor
+     */
+    public static void apply(TestDescriptor root) {
+        if (!Config.getBoolean("bookstore.impact.select", "IMPACT_SELECT", false) || root.getChildren().isEmpty()) {
+            return;
+        }
+        Optional<Set<String>> changes = changedFiles();
+        if (changes.isEmpty()) {
+            log.warn("Impact analysis: could not list changed files, running every scenario");
+            return;
+        }
+        ImpactIndex index = ImpactIndex.load();
+        if (index.isEmpty()) {
+            log.warn("Impact analysis: no index at {} yet, running every scenario", index.file());
+            return;
+        }
+        Set<String> changed = new TreeSet<>();
+        for (String file : changes.get()) {
+            if (NO_IMPACT.matcher(file).matches()) {
+                continue;
+            }
+            if (!file.endsWith(".feature") && !index.covers(file)) {
+                log.info("Impact analysis: {} is not covered by the index, running every scenario", file);
+                return;
+            }
+            changed.add(file);
+        }
+
+        List<TestDescriptor> scenarios = new ArrayList<>();
+        collectScenarios(root, scenarios);
+        List<TestDescriptor> unaffected = scenarios.stream()
+                .filter(scenario -> !affected(scenario, index, changed))
+                .toList();
+        unaffected.forEach(ImpactSelection::removeWithEmptyParents);
+        log.info("Impact analysis: {} changed files {}, running {} of {} scenarios",
+                changed.size(), changed, scenarios.size() - unaffected.size(), scenarios.size());
+    }
+
+    private static boolean affected(TestDescriptor scenario, ImpactIndex index, Set<String> changed) {
+        List<UniqueId.Segment> segments = scenario.getUniqueId().getSegments();
+        String featureUri = segments.stream()
+                .filter(segment -> "feature".equals(segment.getType()))
+                .map(UniqueId.Segment::getValue)
+                .findFirst()
+                .orElse(null);
+        String line = segments.getLast().getValue();
+        if (featureUri == null || !line.chars().allMatch(Character::isDigit)) {
+            return true;
+        }
+        if (changed.contains(ImpactIndex.featureSource(featureUri))) {
+            return true;
+        }
+        ImpactIndex.Entry entry = index.get(ImpactIndex.scenarioKey(featureUri, Integer.parseInt(line)));
+        return entry == null || entry.files().stream().anyMatch(changed::contains);
+    }
+
+    private static void removeWithEmptyParents(TestDescriptor descriptor) {
+        TestDescriptor parent = descriptor.getParent().orElse(null);
+        descriptor.removeFromHierarchy();
+        if (parent != null && parent.getChildren().isEmpty() && parent.getParent().isPresent()) {
+            removeWithEmptyParents(parent);
+        }
+    }
+
+    private static void collectScenarios(TestDescriptor node, List<TestDescriptor> scenarios) {
+        if (node.isTest()) {
+            scenarios.add(node);
+        }
+        node.getChildren().forEach(child -> collectScenarios(child, scenarios));
+    }
+
+    /**
+     * Lists files changed against the base revision, untracked files included; empty when git cannot tell.
+     */
+    private static Optional<Set<String>> changedFiles() {
+        String listed = Config.get("bookstore.impact.changedFiles", "IMPACT_CHANGED_FILES", "");
+        if (!listed.isBlank()) {
+            return Optional.of(new TreeSet<>(Arrays.stream(listed.split(",")).map(String::trim).toList()));
+        }
+        String base = Config.get("bookstore.impact.base", "IMPACT_BASE", "HEAD");
+        Set<String> files = new TreeSet<>();
+        return git(files, "diff", "--name-only", "--relative", base)
+                && git(files, "ls-files", "--others", "--exclude-standard")
+                ? Optional.of(files)
+                : Optional.empty();
+    }
+
+    private static boolean git(Set<String> files, String... arguments) {
+        List<String> command = new ArrayList<>(List.of("git"));
+        command.addAll(List.of(arguments));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output;
+            try (InputStream out = process.getInputStream()) {
+                output = new String(out.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            if (process.waitFor() != 0) {
+                log.warn("Impact analysis: '{}' failed: {}", String.join(" ", command), output.strip());
+                return false;
+            }
+            output.lines().filter(line -> !line.isBlank()).forEach(files::add);
+            return true;
+        } catch (IOException e) {
+            log.warn("Impact analysis: could not run git: {}", e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
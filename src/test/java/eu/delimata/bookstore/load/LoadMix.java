@@ -0,0 +1,84 @@
+package eu.delimata.bookstore.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted selection of {@link LoadOperation}s.
+ */
+final class LoadMix {
+
+    private final LoadOperation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private LoadMix(Map<LoadOperation, Integer> weights) {
+        Map<LoadOperation, Integer> positive = new EnumMap<>(LoadOperation.class);
+        weights.forEach((operation, weight) -> {
+            if (weight > 0) {
+                positive.put(operation, weight);
+            }
+        });
+        if (positive.isEmpty()) {
+            throw new IllegalArgumentException("Load mix must contain at least one operation with a positive weight");
+        }
+
+        this.operations = positive.keySet().toArray(new LoadOperation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int running = 0;
+        for (int i = 0; i < operations.length; i++) {
+            running += positive.get(operations[i]);
+            cumulativeWeights[i] = running;
+        }
+        this.totalWeight = running;
+    }
+
+    /**
+     * Parses a mix such as {@code books.create=2,books.getById=5}.
+     * Operations not listed keep their default weight; a blank spec yields the default mix.
+     *
+     * @param spec comma separated {@code operation=weight} pairs
+     * @return parsed mix
+     */
+    static LoadMix parse(String spec) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : LoadOperation.values()) {
+            weights.put(operation, operation.defaultWeight());
+        }
+        if (spec != null && !spec.isBlank()) {
+            for (String pair : spec.split(",")) {
+                String[] parts = pair.trim().split("=");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid load mix entry: " + pair);
+                }
+                weights.put(LoadOperation.resolve(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        return new LoadMix(weights);
+    }
+
+    LoadOperation next() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < operations.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(operations[i].key()).append('=').append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package eu.delimata.bookstore.load;
+
+import io.restassured.response.Response;
+
+import java.util.function.Function;
+
+/**
+ * Operations a virtual user can perform, with their default weight in the load mix.
+ * Weights can be overridden with {@code -Dbookstore.load.mix=books.create=2,books.getById=5,...}.
+ */
+enum LoadOperation {
+
+    BOOK_CREATE("books.create", 2, VirtualUser::createBook),
+    BOOK_GET_BY_ID("books.getById", 5, VirtualUser::getBook),
+    BOOK_UPDATE("books.update", 2, VirtualUser::updateBook),
+    BOOK_DELETE("books.delete", 1, VirtualUser::deleteBook),
+    BOOK_GET_ALL("books.getAll", 0, VirtualUser::listBooks),
+    AUTHOR_CREATE("authors.create", 2, VirtualUser::createAuthor),
+    AUTHOR_GET_BY_ID("authors.getById", 5, VirtualUser::getAuthor),
+    AUTHOR_UPDATE("authors.update", 2, VirtualUser::updateAuthor),
+    AUTHOR_DELETE("authors.delete", 1, VirtualUser::deleteAuthor),
+    AUTHOR_GET_ALL("authors.getAll", 0, VirtualUser::listAuthors);
+
+    private final String key;
+    private final int defaultWeight;
+    private final Function<VirtualUser, Response> action;
+
+    LoadOperation(String key, int defaultWeight, Function<VirtualUser, Response> action) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+        this.action = action;
+    }
+
+    static LoadOperation resolve(String key) {
+        for (LoadOperation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported load operation: " + key);
+    }
+
+    String key() {
+        return key;
+    }
+
+    int defaultWeight() {
+        return defaultWeight;
+    }
+
+    Response execute(VirtualUser user) {
+        return action.apply(user);
+    }
+}
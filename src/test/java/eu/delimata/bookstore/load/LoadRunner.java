@@ -0,0 +1,172 @@
+package eu.delimata.bookstore.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.delimata.bookstore.api.ReadCache;
+import eu.delimata.bookstore.api.ResourceJanitor;
+import eu.delimata.bookstore.metrics.EndpointLatencies;
+import eu.delimata.bookstore.metrics.LatencyHistogram;
+import eu.delimata.bookstore.stub.BookstoreStubServer;
+import eu.delimata.bookstore.utils.Config;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-model load runner built on {@link eu.delimata.bookstore.api.BooksApi} and
+ * {@link eu.delimata.bookstore.api.AuthorsApi}.
+ * Runs N virtual-thread users for a fixed duration and reports throughput, error rate
+ * and latency percentiles per operation.
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.load.users} / {@code LOAD_USERS} - concurrent users (default 10)</li>
+ *     <li>{@code bookstore.load.duration} / {@code LOAD_DURATION} - run length in seconds (default 60)</li>
+ *     <li>{@code bookstore.load.rampUp} / {@code LOAD_RAMP_UP} - seconds over which users start (default 0)</li>
+ *     <li>{@code bookstore.load.mix} / {@code LOAD_MIX} - weights, e.g. {@code books.create=2,books.getById=5}</li>
+ *     <li>{@code bookstore.load.report} / {@code LOAD_REPORT} - JSON report path</li>
+ * </ul>
+ */
+@Slf4j
+public final class LoadRunner {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private LoadRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Config.getInt("bookstore.load.users", "LOAD_USERS", 10);
+        Duration duration = Duration.ofSeconds(Config.getLong("bookstore.load.duration", "LOAD_DURATION", 60));
+        Duration rampUp = Duration.ofSeconds(Config.getLong("bookstore.load.rampUp", "LOAD_RAMP_UP", 0));
+        LoadMix mix = LoadMix.parse(Config.get("bookstore.load.mix", "LOAD_MIX", ""));
+        Path reportPath = Path.of(Config.get("bookstore.load.report", "LOAD_REPORT", "build/reports/load/load-report.json"));
+
+        // Per-request Allure attachments and URI logging only make sense inside a scenario
+        if (System.getProperty("bookstore.report.http") == null) {
+            System.setProperty("bookstore.report.http", "false");
+        }
+        if (BookstoreStubServer.isEnabled()) {
+            System.setProperty("baseUrl", BookstoreStubServer.start().baseUrl());
+        }
+
+        log.info("Starting load: {} users for {} (ramp-up {}), mix [{}]", users, duration, rampUp, mix);
+        Map<LoadOperation, OperationStats> stats = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : LoadOperation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + rampUp.toNanos() + duration.toNanos();
+        long staggerNanos = users > 1 ? rampUp.toNanos() / (users - 1) : 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                long delayNanos = i * staggerNanos;
+                executor.submit(() -> {
+                    TimeUnit.NANOSECONDS.sleep(delayNanos);
+                    new VirtualUser(mix, stats, deadlineNanos).run();
+                    return null;
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        Map<String, Object> report = report(users, elapsedSeconds, stats);
+        writeReport(reportPath, report);
+        ResourceJanitor.sweep();
+        BookstoreStubServer.stop();
+    }
+
+    private static Map<String, Object> report(int users, double elapsedSeconds, Map<LoadOperation, OperationStats> stats) {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        LatencyHistogram overall = new LatencyHistogram();
+        long totalErrors = 0;
+
+        log.info(String.format("%-16s %9s %9s %8s %9s %9s %9s %9s %9s %9s",
+                "operation", "calls", "ops/s", "err%", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<LoadOperation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            if (operationStats.calls() == 0) {
+                continue;
+            }
+            overall.add(operationStats.latencyMicros());
+            totalErrors += operationStats.errors();
+            Map<String, Object> summary = summary(operationStats.latencyMicros(), operationStats.errors(), elapsedSeconds);
+            operations.put(entry.getKey().key(), summary);
+            logRow(entry.getKey().key(), summary);
+        }
+        Map<String, Object> total = summary(overall, totalErrors, elapsedSeconds);
+        logRow("TOTAL", total);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", users);
+        report.put("elapsedSeconds", round(elapsedSeconds));
+        report.put("total", total);
+        report.put("operations", operations);
+        report.put("endpoints", EndpointLatencies.summary());
+        if (ReadCache.isEnabled()) {
+            ReadCache.ReadCacheStats cache = ReadCache.stats();
+            log.info("HTTP read cache: {}", cache);
+            report.put("readCache", cache);
+        }
+        return report;
+    }
+
+    private static Map<String, Object> summary(LatencyHistogram latencyMicros, long errors, double elapsedSeconds) {
+        long calls = latencyMicros.count();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("calls", calls);
+        summary.put("errors", errors);
+        summary.put("errorRate", calls == 0 ? 0.0 : round((double) errors / calls));
+        summary.put("throughputPerSecond", round(calls / elapsedSeconds));
+        summary.put("meanMillis", round(latencyMicros.mean() / 1_000));
+        for (double percentile : PERCENTILES) {
+            summary.put("p" + formatPercentile(percentile) + "Millis", round(latencyMicros.percentile(percentile) / 1_000.0));
+        }
+        summary.put("maxMillis", round(latencyMicros.max() / 1_000.0));
+        return summary;
+    }
+
+    private static void logRow(String name, Map<String, Object> summary) {
+        long calls = (long) summary.get("calls");
+        log.info(String.format("%-16s %9d %9.1f %8.2f %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f",
+                name, calls,
+                (double) summary.get("throughputPerSecond"),
+                (double) summary.get("errorRate") * 100,
+                (double) summary.get("p50Millis"),
+                (double) summary.get("p90Millis"),
+                (double) summary.get("p95Millis"),
+                (double) summary.get("p99Millis"),
+                (double) summary.get("p99.9Millis"),
+                (double) summary.get("maxMillis")));
+    }
+
+    private static void writeReport(Path reportPath, Map<String, Object> report) {
+        try {
+            if (reportPath.getParent() != null) {
+                Files.createDirectories(reportPath.getParent());
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+            log.info("Load report saved to {}", reportPath.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("Error: {}", e.getMessage());
+        }
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1_000) / 1_000.0;
+    }
+}
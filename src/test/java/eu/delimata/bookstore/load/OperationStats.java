@@ -0,0 +1,33 @@
+package eu.delimata.bookstore.load;
+
+import eu.delimata.bookstore.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe counters and latency histogram for a single {@link LoadOperation}.
+ */
+final class OperationStats {
+
+    private final LatencyHistogram latencyMicros = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, boolean success) {
+        latencyMicros.record(latencyNanos / 1_000);
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    long calls() {
+        return latencyMicros.count();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    LatencyHistogram latencyMicros() {
+        return latencyMicros;
+    }
+}
@@ -0,0 +1,188 @@
+package eu.delimata.bookstore.load;
+
+import eu.delimata.bookstore.api.AuthorsApi;
+import eu.delimata.bookstore.api.BooksApi;
+import eu.delimata.bookstore.model.Author;
+import eu.delimata.bookstore.model.Book;
+import eu.delimata.bookstore.stepdefinitions.builders.AuthorBuilder;
+import eu.delimata.bookstore.stepdefinitions.builders.BookBuilder;
+import eu.delimata.bookstore.utils.TestData;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A single closed-model user: issues the next operation as soon as the previous one completes.
+ * Each user owns its API clients and remembers the books and authors it created,
+ * so reads, updates and deletes target data produced with the same builders as the functional suite.
+ */
+@Slf4j
+final class VirtualUser implements Runnable {
+
+    private final BooksApi booksApi = new BooksApi();
+    private final AuthorsApi authorsApi = new AuthorsApi();
+    private final Deque<Book> books = new ArrayDeque<>();
+    private final Deque<Author> authors = new ArrayDeque<>();
+
+    private final LoadMix mix;
+    private final Map<LoadOperation, OperationStats> stats;
+    private final long deadlineNanos;
+
+    VirtualUser(LoadMix mix, Map<LoadOperation, OperationStats> stats, long deadlineNanos) {
+        this.mix = mix;
+        this.stats = stats;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public void run() {
+        while (isRunning()) {
+            LoadOperation operation = mix.next();
+            if (ensureTarget(operation)) {
+                perform(operation);
+            }
+        }
+    }
+
+    Response createBook() {
+        int id = TestData.uniqueId();
+        Book book = BookBuilder.aBook()
+                .withId(id)
+                .buildRandom();
+        Response response = booksApi.create(book);
+        if (isSuccessful(response)) {
+            books.addLast(book);
+        }
+        return response;
+    }
+
+    Response getBook() {
+        return booksApi.getById(ownBook().id());
+    }
+
+    Response updateBook() {
+        Book book = books.pollFirst();
+        Book updated = BookBuilder.fromBook(book)
+                .withTitle(TestData.randomTitle())
+                .withPageCount(book.pageCount() + 1)
+                .build();
+        Response response = booksApi.update(book.id(), updated);
+        books.addLast(isSuccessful(response) ? updated : book);
+        return response;
+    }
+
+    Response deleteBook() {
+        Book book = ownBook();
+        books.remove(book);
+        return booksApi.delete(book.id());
+    }
+
+    Response listBooks() {
+        return booksApi.getAll();
+    }
+
+    Response createAuthor() {
+        int id = TestData.uniqueId();
+        Author author = AuthorBuilder.anAuthor()
+                .withId(id)
+                .withIdBook(id)
+                .buildRandom();
+        Response response = authorsApi.create(author);
+        if (isSuccessful(response)) {
+            authors.addLast(author);
+        }
+        return response;
+    }
+
+    Response getAuthor() {
+        return authorsApi.getById(ownAuthor().id());
+    }
+
+    Response updateAuthor() {
+        Author author = authors.pollFirst();
+        Author updated = AuthorBuilder.fromAuthor(author)
+                .withFirstName(TestData.randomFirstName())
+                .build();
+        Response response = authorsApi.update(author.id(), updated);
+        authors.addLast(isSuccessful(response) ? updated : author);
+        return response;
+    }
+
+    Response deleteAuthor() {
+        Author author = ownAuthor();
+        authors.remove(author);
+        return authorsApi.delete(author.id());
+    }
+
+    Response listAuthors() {
+        return authorsApi.getAll();
+    }
+
+    private Book ownBook() {
+        return randomOf(books);
+    }
+
+    private Author ownAuthor() {
+        return randomOf(authors);
+    }
+
+    /**
+     * Makes sure an operation that targets existing data has something of this user's to work on.
+     * Any creates needed are measured as creates, not as part of the operation itself.
+     *
+     * @return false when the run ended before a target could be created
+     */
+    private boolean ensureTarget(LoadOperation operation) {
+        switch (operation) {
+            case BOOK_GET_BY_ID, BOOK_UPDATE, BOOK_DELETE -> {
+                while (books.isEmpty() && isRunning()) {
+                    perform(LoadOperation.BOOK_CREATE);
+                }
+                return !books.isEmpty();
+            }
+            case AUTHOR_GET_BY_ID, AUTHOR_UPDATE, AUTHOR_DELETE -> {
+                while (authors.isEmpty() && isRunning()) {
+                    perform(LoadOperation.AUTHOR_CREATE);
+                }
+                return !authors.isEmpty();
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    private boolean isRunning() {
+        return System.nanoTime() < deadlineNanos && !Thread.currentThread().isInterrupted();
+    }
+
+    private void perform(LoadOperation operation) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = isSuccessful(operation.execute(this));
+        } catch (Exception exception) {
+            log.debug("{} failed: {}", operation.key(), exception.getMessage());
+            success = false;
+        }
+        stats.get(operation).record(System.nanoTime() - start, success);
+    }
+
+    private static boolean isSuccessful(Response response) {
+        return response.getStatusCode() >= 200 && response.getStatusCode() < 300;
+    }
+
+    private static <T> T randomOf(Deque<T> items) {
+        int skip = ThreadLocalRandom.current().nextInt(items.size());
+        for (T item : items) {
+            if (skip-- == 0) {
+                return item;
+            }
+        }
+        return items.getLast();
+    }
+}
@@ -0,0 +1,174 @@
+package eu.delimata.bookstore.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Process-wide latency histograms per endpoint, keyed by HTTP method, route template
+ * (e.g. {@code /api/v1/Books/{id}}) and response status. Values are microseconds.
+ *
+ * <p>Recording a value for an endpoint that has been seen before does not allocate: the method and route
+ * are looked up in nested maps by the caller's own strings and the status selects a slot in a fixed array.</p>
+ */
+@Slf4j
+public final class EndpointLatencies {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final int STATUS_SLOTS = 600;
+
+    private static final ConcurrentMap<String, ConcurrentMap<String, AtomicReferenceArray<LatencyHistogram>>> ENDPOINTS =
+            new ConcurrentHashMap<>();
+
+    private EndpointLatencies() {
+    }
+
+    /**
+     * Records one request.
+     *
+     * @param method HTTP method
+     * @param route  route template of the request
+     * @param status response status
+     * @param micros latency in microseconds
+     */
+    public static void record(String method, String route, int status, long micros) {
+        ConcurrentMap<String, AtomicReferenceArray<LatencyHistogram>> routes = ENDPOINTS.get(method);
+        if (routes == null) {
+            routes = ENDPOINTS.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        }
+        AtomicReferenceArray<LatencyHistogram> statuses = routes.get(route);
+        if (statuses == null) {
+            statuses = routes.computeIfAbsent(route, r -> new AtomicReferenceArray<>(STATUS_SLOTS));
+        }
+        int slot = status >= 0 && status < STATUS_SLOTS ? status : 0;
+        LatencyHistogram histogram = statuses.get(slot);
+        if (histogram == null) {
+            statuses.compareAndSet(slot, null, new LatencyHistogram());
+            histogram = statuses.get(slot);
+        }
+        histogram.record(micros);
+    }
+
+    /**
+     * Returns the live histogram of one endpoint, e.g. to derive thresholds from the latencies seen so far.
+     *
+     * @param method HTTP method
+     * @param route  route template
+     * @param status response status
+     * @return the histogram, or {@code null} if no such request was recorded yet
+     */
+    public static LatencyHistogram histogram(String method, String route, int status) {
+        ConcurrentMap<String, AtomicReferenceArray<LatencyHistogram>> routes = ENDPOINTS.get(method);
+        AtomicReferenceArray<LatencyHistogram> statuses = routes != null ? routes.get(route) : null;
+        return statuses != null && status >= 0 && status < STATUS_SLOTS ? statuses.get(status) : null;
+    }
+
+    /**
+     * Summarises every endpoint seen so far, ordered by route, method and status.
+     *
+     * @return one entry per (method, route, status) with call count and percentiles in milliseconds
+     */
+    public static List<Map<String, Object>> summary() {
+        List<Map<String, Object>> summary = new ArrayList<>();
+        ENDPOINTS.forEach((method, routes) -> routes.forEach((route, statuses) -> {
+            for (int status = 0; status < STATUS_SLOTS; status++) {
+                LatencyHistogram histogram = statuses.get(status);
+                if (histogram != null && histogram.count() > 0) {
+                    summary.add(summary(method, route, status, histogram));
+                }
+            }
+        }));
+        summary.sort(Comparator.<Map<String, Object>, String>comparing(e -> (String) e.get("route"))
+                .thenComparing(e -> (String) e.get("method"))
+                .thenComparing(e -> (Integer) e.get("status")));
+        return summary;
+    }
+
+    /**
+     * Renders the summary as an aligned plain-text table.
+     *
+     * @return the table, or an empty string when nothing was recorded
+     */
+    public static String table() {
+        List<Map<String, Object>> summary = summary();
+        if (summary.isEmpty()) {
+            return "";
+        }
+        StringBuilder table = new StringBuilder(String.format("%-7s %-24s %6s %7s %9s %9s %9s %9s %9s%n",
+                "method", "route", "status", "calls", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map<String, Object> endpoint : summary) {
+            table.append(String.format("%-7s %-24s %6d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    endpoint.get("method"), endpoint.get("route"), endpoint.get("status"), endpoint.get("calls"),
+                    endpoint.get("p50Millis"), endpoint.get("p90Millis"), endpoint.get("p99Millis"),
+                    endpoint.get("p99.9Millis"), endpoint.get("maxMillis")));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Renders the summary as indented JSON.
+     *
+     * @return the JSON document, an empty array when nothing was recorded
+     */
+    public static byte[] json() {
+        try {
+            return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(summary());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the summary as JSON.
+     *
+     * @param reportPath target file; parent directories are created
+     */
+    public static void writeReport(Path reportPath) {
+        try {
+            if (reportPath.getParent() != null) {
+                Files.createDirectories(reportPath.getParent());
+            }
+            Files.write(reportPath, json());
+            log.info("Endpoint latency report saved to {}", reportPath.toAbsolutePath());
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Error: {}", e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> summary(String method, String route, int status, LatencyHistogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("method", method);
+        summary.put("route", route);
+        summary.put("status", status);
+        summary.put("calls", histogram.count());
+        summary.put("meanMillis", round(histogram.mean() / 1_000));
+        for (double percentile : PERCENTILES) {
+            summary.put("p" + formatPercentile(percentile) + "Millis", round(histogram.percentile(percentile) / 1_000.0));
+        }
+        summary.put("maxMillis", round(histogram.max() / 1_000.0));
+        return summary;
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1_000) / 1_000.0;
+    }
+}
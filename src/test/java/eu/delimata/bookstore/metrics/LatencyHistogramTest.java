@@ -0,0 +1,116 @@
+package eu.delimata.bookstore.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    private static final double[] PERCENTILES = {0, 1, 10, 50, 90, 95, 99, 99.9, 100};
+
+    @Test
+    void isEmptyUntilRecorded() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.max()).isZero();
+        assertThat(histogram.mean()).isZero();
+        assertThat(histogram.percentile(99)).isZero();
+    }
+
+    @Test
+    void isExactBelowTheFirstSubBucketRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 128; value++) {
+            histogram.record(value);
+        }
+        assertThat(histogram.percentile(50)).isEqualTo(63);
+        assertThat(histogram.percentile(100)).isEqualTo(127);
+        assertThat(histogram.mean()).isEqualTo(63.5);
+    }
+
+    @Test
+    void reportsBucketUpperBoundsAtEdges() {
+        // 128 and 129 share a bucket, 130 starts the next; at 256 buckets widen to 4
+        assertThat(single(127)).isEqualTo(127);
+        assertThat(percentileOf(128, 1_000)).isEqualTo(129);
+        assertThat(percentileOf(129, 1_000)).isEqualTo(129);
+        assertThat(percentileOf(130, 1_000)).isEqualTo(131);
+        assertThat(percentileOf(255, 1_000)).isEqualTo(255);
+        assertThat(percentileOf(256, 1_000)).isEqualTo(259);
+        assertThat(percentileOf(259, 1_000)).isEqualTo(259);
+        assertThat(percentileOf(260, 1_000)).isEqualTo(263);
+    }
+
+    @Test
+    void neverReportsMoreThanTheMaximum() {
+        assertThat(single(128)).isEqualTo(128);
+        assertThat(single(1_000_001)).isEqualTo(1_000_001);
+    }
+
+    @Test
+    void clampsNegativeValuesToZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertThat(histogram.percentile(100)).isZero();
+        assertThat(histogram.count()).isEqualTo(1);
+    }
+
+    @Test
+    void percentilesStayWithinRelativeErrorOfSortedValues() {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] values = new long[100_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            // Log-uniform from 1 us to about 10 s, like request latencies
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(10_000_000));
+            histogram.record(values[i]);
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        for (double percentile : PERCENTILES) {
+            int rank = (int) Math.max(1, Math.ceil(percentile / 100.0 * sorted.length));
+            long exact = sorted[rank - 1];
+            long reported = histogram.percentile(percentile);
+            assertThat(reported).as("p%s", percentile)
+                    .isGreaterThanOrEqualTo(exact)
+                    .isLessThanOrEqualTo(exact + exact / 64);
+        }
+        assertThat(histogram.max()).isEqualTo(sorted[sorted.length - 1]);
+        assertThat(histogram.mean()).isEqualTo(Arrays.stream(values).average().orElseThrow());
+    }
+
+    @Test
+    void mergedHistogramMatchesOneRecordedWithAllValues() {
+        LatencyHistogram left = new LatencyHistogram();
+        LatencyHistogram right = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            (value % 2 == 0 ? left : right).record(value * 37);
+            all.record(value * 37);
+        }
+        left.add(right);
+        assertThat(left.count()).isEqualTo(all.count());
+        assertThat(left.max()).isEqualTo(all.max());
+        for (double percentile : PERCENTILES) {
+            assertThat(left.percentile(percentile)).isEqualTo(all.percentile(percentile));
+        }
+    }
+
+    private static long single(long value) {
+        return percentileOf(value, 1);
+    }
+
+    // With a larger value also recorded, the percentile is the bucket bound rather than the clamped maximum
+    private static long percentileOf(long value, long larger) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(value);
+        if (larger > 1) {
+            histogram.record(value * larger);
+        }
+        return histogram.percentile(50);
+    }
+}
@@ -0,0 +1,132 @@
+package eu.delimata.bookstore.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latency and error counts for the current time window, shared by the whole process.
+ * Whoever drives the window calls {@link #roll()} periodically; recording never blocks or allocates.
+ * A request counts as an error when it failed without a response, was throttled (429) or hit a server error (5xx).
+ *
+ * <p>A consumer with a window length of its own, e.g. a soak run, opens a {@link Series}: every request is recorded
+ * in it as well, and rolling it leaves the shared window alone.</p>
+ */
+public final class RequestWindow {
+
+    private static final AtomicReference<Window> CURRENT = new AtomicReference<>(new Window());
+    private static volatile Series[] series = new Series[0];
+
+    private RequestWindow() {
+    }
+
+    /**
+     * Records a request that got a response.
+     *
+     * @param micros latency in microseconds
+     * @param status response status
+     */
+    public static void record(long micros, int status) {
+        CURRENT.get().record(micros, status);
+        for (Series open : series) {
+            open.current.get().record(micros, status);
+        }
+    }
+
+    /**
+     * Records a request that failed without a response, e.g. on a timeout.
+     *
+     * @param micros time until the failure, in microseconds
+     */
+    public static void recordFailure(long micros) {
+        record(micros, 599);
+    }
+
+    /**
+     * Closes the current window and starts a new one.
+     *
+     * @return statistics of the closed window
+     */
+    public static Snapshot roll() {
+        return CURRENT.getAndSet(new Window()).snapshot();
+    }
+
+    /**
+     * Starts a window sequence of its own, which sees every request from now on until it is closed.
+     *
+     * @return the new series
+     */
+    public static synchronized Series openSeries() {
+        Series opened = new Series();
+        Series[] grown = Arrays.copyOf(series, series.length + 1);
+        grown[series.length] = opened;
+        series = grown;
+        return opened;
+    }
+
+    private static synchronized void closeSeries(Series closed) {
+        series = Arrays.stream(series).filter(open -> open != closed).toArray(Series[]::new);
+    }
+
+    /**
+     * A window sequence independent of the shared one, rolled by its owner at its own pace.
+     */
+    public static final class Series implements AutoCloseable {
+
+        private final AtomicReference<Window> current = new AtomicReference<>(new Window());
+
+        private Series() {
+        }
+
+        /**
+         * Closes the current window of this series and starts a new one.
+         *
+         * @return statistics of the closed window
+         */
+        public Snapshot roll() {
+            return current.getAndSet(new Window()).snapshot();
+        }
+
+        /**
+         * Stops recording into this series.
+         */
+        @Override
+        public void close() {
+            closeSeries(this);
+        }
+    }
+
+    /**
+     * Statistics of one closed window.
+     *
+     * @param calls     requests recorded
+     * @param errors    requests counted as errors
+     * @param p50Micros median latency in microseconds
+     * @param p90Micros 90th percentile latency in microseconds
+     * @param p99Micros 99th percentile latency in microseconds
+     * @param maxMicros slowest request in microseconds
+     */
+    public record Snapshot(long calls, long errors, long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+
+        public double errorRate() {
+            return calls == 0 ? 0.0 : (double) errors / calls;
+        }
+    }
+
+    private static final class Window {
+        private final LatencyHistogram latencyMicros = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        void record(long micros, int status) {
+            latencyMicros.record(micros);
+            if (status == 429 || status >= 500) {
+                errors.increment();
+            }
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(latencyMicros.count(), errors.sum(), latencyMicros.percentile(50),
+                    latencyMicros.percentile(90), latencyMicros.percentile(99), latencyMicros.max());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package eu.delimata.bookstore.parallel;
+
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Parallel execution strategy that lets the number of concurrently running scenarios follow the API's latency
+ * and error rate. JUnit sizes its worker pool once, so the pool is created for the maximum and the
+ * {@link ScenarioLimiter} decides how many of those workers may run a scenario at any moment.
+ *
+ * <p>A worker over the limit waits in the limiter, which the fork-join pool sees as a managed block and would
+ * normally answer with a compensation thread that picks up the next scenario, only for it to wait as well.
+ * The pool is therefore capped at its parallelism: a waiting worker is not replaced, so the JVM never holds more
+ * than the maximum number of scenario threads, however low the limit drops.</p>
+ *
+ * <p>Enabled in {@code junit-platform.properties}:</p>
+ * <pre>
+ * cucumber.execution.parallel.config.strategy=custom
+ * cucumber.execution.parallel.config.custom.class=eu.delimata.bookstore.parallel.AdaptiveParallelismStrategy
+ * cucumber.execution.parallel.config.custom.base-parallelism=4
+ * cucumber.execution.parallel.config.custom.max-parallelism=16
+ * cucumber.execution.parallel.config.custom.window-millis=2000
+ * </pre>
+ */
+public class AdaptiveParallelismStrategy implements ParallelExecutionConfigurationStrategy {
+
+    static final String BASE_PARALLELISM = "custom.base-parallelism";
+    static final String MAX_PARALLELISM = "custom.max-parallelism";
+    static final String WINDOW_MILLIS = "custom.window-millis";
+
+    private static final int KEEP_ALIVE_SECONDS = 30;
+
+    @Override
+    public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters configurationParameters) {
+        int base = configurationParameters.get(BASE_PARALLELISM, Integer::parseInt).orElse(4);
+        int max = Math.max(base, configurationParameters.get(MAX_PARALLELISM, Integer::parseInt).orElse(16));
+        long windowMillis = configurationParameters.get(WINDOW_MILLIS, Long::parseLong).orElse(2_000L);
+        if (base < 1) {
+            throw new IllegalArgumentException(BASE_PARALLELISM + " must be at least 1, was " + base);
+        }
+
+        ScenarioLimiter.start(base, max, windowMillis);
+        // maxPoolSize == parallelism with a saturate predicate of true: no compensation threads
+        return new Configuration(max, max, max, max, KEEP_ALIVE_SECONDS, pool -> true);
+    }
+
+    private record Configuration(int parallelism, int minimumRunnable, int maxPoolSize, int corePoolSize,
+                                 int keepAliveSeconds, Predicate<? super ForkJoinPool> saturatePredicate)
+            implements ParallelExecutionConfiguration {
+
+        @Override
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        @Override
+        public int getMinimumRunnable() {
+            return minimumRunnable;
+        }
+
+        @Override
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        @Override
+        public int getCorePoolSize() {
+            return corePoolSize;
+        }
+
+        @Override
+        public int getKeepAliveSeconds() {
+            return keepAliveSeconds;
+        }
+
+        @Override
+        public Predicate<? super ForkJoinPool> getSaturatePredicate() {
+            return saturatePredicate;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package eu.delimata.bookstore.parallel;
+
+import eu.delimata.bookstore.impact.ImpactSelection;
+import io.cucumber.junit.platform.engine.CucumberEngineExecutionContext;
+import io.cucumber.junit.platform.engine.CucumberTestEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.EngineDiscoveryRequest;
+import org.junit.platform.engine.ExecutionRequest;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestEngine;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.config.PrefixedConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.DefaultParallelExecutionConfigurationStrategy;
+import org.junit.platform.engine.support.hierarchical.ForkJoinPoolHierarchicalTestExecutorService;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestEngine;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestExecutorService;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The Cucumber engine with a choice of executor. Discovery and scenario execution are Cucumber's own;
+ * only the threads scenarios run on differ.
+ * <ul>
+ *     <li>By default scenarios run exactly as with the stock engine: on JUnit's fork-join pool when
+ *     {@code cucumber.execution.parallel.enabled} is set, otherwise on the calling thread.</li>
+ *     <li>With {@code cucumber.execution.virtual-threads.enabled=true} (and parallel execution enabled) they run on
+ *     virtual threads instead. The number of workers comes from {@code cucumber.execution.virtual-threads.parallelism},
+ *     and that many scenarios run at once: the configured parallel strategy is not consulted, so the
+ *     {@link ScenarioLimiter} and its {@code max-parallelism} do not apply. When unset, the workers come from the
+ *     strategy, which keeps adaptive parallelism, and its cap, in effect.</li>
+ * </ul>
+ * Scenarios are handed out longest-first by their recorded durations, see {@link ScenarioSchedule}, can be
+ * narrowed to those affected by a change, see {@link ImpactSelection}, and split across processes, see
+ * {@link ScenarioShards}.
+ */
+@Slf4j
+public final class BookstoreCucumberEngine implements TestEngine {
+
+    public static final String ENGINE_ID = "bookstore-cucumber";
+
+    static final String PARALLEL_ENABLED = "cucumber.execution.parallel.enabled";
+    static final String PARALLEL_CONFIG_PREFIX = "cucumber.execution.parallel.config.";
+    static final String VIRTUAL_THREADS_ENABLED = "cucumber.execution.virtual-threads.enabled";
+    static final String VIRTUAL_THREADS_PARALLELISM = "cucumber.execution.virtual-threads.parallelism";
+
+    private final CucumberTestEngine cucumber = new CucumberTestEngine();
+    private final Executor executor = new Executor();
+    private final ScenarioSchedule schedule = new ScenarioSchedule();
+
+    @Override
+    public String getId() {
+        return ENGINE_ID;
+    }
+
+    @Override
+    public TestDescriptor discover(EngineDiscoveryRequest discoveryRequest, UniqueId uniqueId) {
+        TestDescriptor root = cucumber.discover(discoveryRequest, uniqueId);
+        ImpactSelection.apply(root);
+        ScenarioShards.apply(root, schedule.history());
+        schedule.order(root);
+        return root;
+    }
+
+    @Override
+    public void execute(ExecutionRequest request) {
+        long start = System.nanoTime();
+        executor.execute(ExecutionRequest.create(request.getRootTestDescriptor(),
+                schedule.recording(request.getEngineExecutionListener()), request.getConfigurationParameters()));
+        schedule.finish(request.getRootTestDescriptor(), executor.workers, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Runs the discovered tree; the executor service is where the engine differs from Cucumber's.
+     */
+    private final class Executor extends HierarchicalTestEngine<CucumberEngineExecutionContext> {
+
+        private volatile int workers = 1;
+
+        @Override
+        public String getId() {
+            return ENGINE_ID;
+        }
+
+        @Override
+        public TestDescriptor discover(EngineDiscoveryRequest discoveryRequest, UniqueId uniqueId) {
+            return cucumber.discover(discoveryRequest, uniqueId);
+        }
+
+        @Override
+        protected HierarchicalTestExecutorService createExecutorService(ExecutionRequest request) {
+            ConfigurationParameters parameters = request.getConfigurationParameters();
+            // Launchers that find no features here still execute the engine; don't spin up workers for that
+            if (!parameters.getBoolean(PARALLEL_ENABLED).orElse(false) || request.getRootTestDescriptor().getChildren().isEmpty()) {
+                workers = 1;
+                return super.createExecutorService(request);
+            }
+            ConfigurationParameters parallelConfig = new PrefixedConfigurationParameters(parameters, PARALLEL_CONFIG_PREFIX);
+            if (!parameters.getBoolean(VIRTUAL_THREADS_ENABLED).orElse(false)) {
+                HierarchicalTestExecutorService forkJoin = new ForkJoinPoolHierarchicalTestExecutorService(parallelConfig);
+                workers = Math.min(strategyParallelism(parallelConfig), ScenarioLimiter.limit());
+                return forkJoin;
+            }
+
+            // An explicit count is the concurrency asked for: the strategy, and with it the adaptive limiter, stays out
+            Optional<Integer> explicit = parameters.get(VIRTUAL_THREADS_PARALLELISM, Integer::parseInt);
+            int parallelism = explicit.orElseGet(() -> strategyParallelism(parallelConfig));
+            workers = explicit.isPresent() ? parallelism : Math.min(parallelism, ScenarioLimiter.limit());
+            log.info("Running {} scenarios at a time on {} virtual-thread workers", workers, parallelism);
+            return new VirtualThreadExecutorService(parallelism);
+        }
+
+        @Override
+        protected CucumberEngineExecutionContext createExecutionContext(ExecutionRequest request) {
+            // Cucumber's execution context can only be created by its own engine
+            try {
+                Method createExecutionContext =
+                        CucumberTestEngine.class.getDeclaredMethod("createExecutionContext", ExecutionRequest.class);
+                createExecutionContext.setAccessible(true);
+                return (CucumberEngineExecutionContext) createExecutionContext.invoke(cucumber, request);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("Unsupported Cucumber version: cannot create its execution context", e);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        private static int strategyParallelism(ConfigurationParameters parallelConfig) {
+            String strategy = parallelConfig.get(DefaultParallelExecutionConfigurationStrategy.CONFIG_STRATEGY_PROPERTY_NAME)
+                    .orElse(DefaultParallelExecutionConfigurationStrategy.DYNAMIC.name());
+            return DefaultParallelExecutionConfigurationStrategy.valueOf(strategy.toUpperCase(Locale.ROOT))
+                    .createConfiguration(parallelConfig)
+                    .getParallelism();
+        }
+    }
+}
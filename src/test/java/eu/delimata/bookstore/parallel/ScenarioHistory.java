@@ -0,0 +1,148 @@
+package eu.delimata.bookstore.parallel;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-scenario durations from earlier runs, keyed by {@link #keyOf}, kept in a local JSON file.
+ * A new measurement is averaged with the stored one, so a single slow run only moves the estimate half-way.
+ */
+@Slf4j
+final class ScenarioHistory {
+
+    private static final long DEFAULT_ESTIMATE_MILLIS = 1_000;
+
+    private final Path file;
+    private final Map<String, Long> previous;
+    private final long unknownEstimateMillis;
+    private final ConcurrentMap<String, Long> measured = new ConcurrentHashMap<>();
+
+    private ScenarioHistory(Path file, Map<String, Long> previous) {
+        this.file = file;
+        this.previous = previous;
+        this.unknownEstimateMillis = (long) previous.values().stream()
+                .mapToLong(Long::longValue)
+                .average()
+                .orElse(DEFAULT_ESTIMATE_MILLIS);
+    }
+
+    /**
+     * Reads the history file; a missing or unreadable file gives an empty history.
+     *
+     * @param file history file
+     * @return the history
+     */
+    static ScenarioHistory load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return new ScenarioHistory(file, Map.of());
+        }
+        try {
+            return new ScenarioHistory(file, new ObjectMapper().readValue(file.toFile(), new TypeReference<TreeMap<String, Long>>() {
+            }));
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable scenario history {}: {}", file, e.getMessage());
+            return new ScenarioHistory(file, Map.of());
+        }
+    }
+
+    boolean isEmpty() {
+        return previous.isEmpty();
+    }
+
+    /**
+     * Returns the expected duration of a scenario: its recorded duration, or the mean of all recorded
+     * scenarios when it has not run before.
+     */
+    long estimateMillis(String scenarioId) {
+        return previous.getOrDefault(scenarioId, unknownEstimateMillis);
+    }
+
+    long estimateMillis(TestDescriptor descriptor) {
+        return estimateMillis(keyOf(descriptor));
+    }
+
+    /**
+     * Identifies a scenario independently of how the engine was launched, e.g.
+     * {@code feature:classpath:eu/delimata/bookstore/books.feature/scenario:8}: the part of its unique id below the engine.
+     *
+     * @param descriptor scenario descriptor
+     * @return history key
+     */
+    static String keyOf(TestDescriptor descriptor) {
+        List<UniqueId.Segment> segments = descriptor.getUniqueId().getSegments();
+        int engine = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            if ("engine".equals(segments.get(i).getType())) {
+                engine = i + 1;
+            }
+        }
+        StringBuilder key = new StringBuilder();
+        for (UniqueId.Segment segment : segments.subList(engine, segments.size())) {
+            key.append(key.isEmpty() ? "" : "/").append(segment.getType()).append(':').append(segment.getValue());
+        }
+        return key.toString();
+    }
+
+    void record(String scenarioId, long millis) {
+        measured.put(scenarioId, millis);
+    }
+
+    /**
+     * Stores this run's measurements, averaged with the previous ones; scenarios that did not run keep their entry.
+     */
+    void save() {
+        if (measured.isEmpty()) {
+            return;
+        }
+        Map<String, Long> merged = new TreeMap<>(previous);
+        measured.forEach((id, millis) -> merged.merge(id, millis, (old, now) -> (old + now) / 2));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), merged);
+        } catch (IOException e) {
+            log.error("Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Predicts the wall-clock time of running the scenarios longest-first on a number of workers,
+     * each scenario going to the worker that becomes free first.
+     *
+     * @param estimates expected scenario durations
+     * @param workers   scenarios running at the same time
+     * @return predicted duration of the whole run in milliseconds
+     */
+    static long predictMillis(List<Long> estimates, int workers) {
+        List<Long> longestFirst = new ArrayList<>(estimates);
+        longestFirst.sort(Comparator.reverseOrder());
+        PriorityQueue<Long> busyUntil = new PriorityQueue<>();
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            busyUntil.add(0L);
+        }
+        long makespan = 0;
+        for (long estimate : longestFirst) {
+            long finish = busyUntil.poll() + estimate;
+            busyUntil.add(finish);
+            makespan = Math.max(makespan, finish);
+        }
+        return makespan;
+    }
+}
@@ -0,0 +1,198 @@
+package eu.delimata.bookstore.parallel;
+
+import eu.delimata.bookstore.metrics.RequestWindow;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission gate for scenarios whose limit follows the health of the API under test.
+ * Every window the limiter looks at the requests recorded in {@link RequestWindow}:
+ * <ul>
+ *     <li>error rate above 5% (timeouts, 429, 5xx) - the limit is cut by a quarter;</li>
+ *     <li>p90 latency above twice the best p90 seen recently - the limit drops by one;</li>
+ *     <li>p90 latency within 1.5x of that baseline while scenarios are waiting - the limit grows by one.</li>
+ * </ul>
+ * The baseline creeps up by 5% per window, so a permanently slower API does not keep shrinking the limit.
+ * Only active when {@link AdaptiveParallelismStrategy} is the configured strategy; otherwise the gate is open.
+ */
+@Slf4j
+public final class ScenarioLimiter {
+
+    private static final double MAX_ERROR_RATE = 0.05;
+    private static final double GROW_TOLERANCE = 1.5;
+    private static final double SHRINK_TOLERANCE = 2.0;
+    private static final long MIN_SAMPLES = 5;
+
+    private static volatile ScenarioLimiter active;
+    private static final ThreadLocal<long[]> WAITED_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final int maxLimit;
+    private final long startNanos = System.nanoTime();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private final List<String> timeline = new ArrayList<>();
+    private int limit;
+    private int running;
+    private int waiting;
+    private long baselineMicros = Long.MAX_VALUE;
+
+    private ScenarioLimiter(int baseLimit, int maxLimit) {
+        this.limit = baseLimit;
+        this.maxLimit = maxLimit;
+        timeline.add(entry(baseLimit));
+    }
+
+    static synchronized void start(int baseLimit, int maxLimit, long windowMillis) {
+        if (active != null) {
+            return;
+        }
+        ScenarioLimiter limiter = new ScenarioLimiter(baseLimit, maxLimit);
+        Thread.ofPlatform()
+                .name("scenario-limiter")
+                .daemon(true)
+                .start(() -> limiter.adjustEvery(windowMillis));
+        active = limiter;
+        log.info("Adaptive scenario parallelism: starting at {}, up to {}, adjusted every {} ms",
+                baseLimit, maxLimit, windowMillis);
+    }
+
+    /**
+     * Waits until the scenario may run. Returns immediately when adaptive parallelism is not in use.
+     *
+     * @return whether a slot was taken and must be given back with {@link #release()}
+     */
+    public static boolean acquire() {
+        ScenarioLimiter limiter = active;
+        if (limiter == null) {
+            return false;
+        }
+        long start = System.nanoTime();
+        limiter.lock.lock();
+        try {
+            limiter.waiting++;
+            while (limiter.running >= limiter.limit) {
+                limiter.slotFreed.awaitUninterruptibly();
+            }
+            limiter.waiting--;
+            limiter.running++;
+            return true;
+        } finally {
+            limiter.lock.unlock();
+            WAITED_NANOS.get()[0] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Gives back a slot taken by {@link #acquire()}.
+     */
+    public static void release() {
+        ScenarioLimiter limiter = active;
+        if (limiter == null) {
+            return;
+        }
+        limiter.lock.lock();
+        try {
+            limiter.running--;
+            limiter.slotFreed.signal();
+        } finally {
+            limiter.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how long the calling thread has waited for slots since the last call, and resets it.
+     * Lets scenario timings leave out time spent queued behind the limit.
+     *
+     * @return wait time in nanoseconds
+     */
+    static long takeWaitedNanos() {
+        long[] waited = WAITED_NANOS.get();
+        long nanos = waited[0];
+        waited[0] = 0;
+        return nanos;
+    }
+
+    /**
+     * @return the current limit, or {@link Integer#MAX_VALUE} when adaptive parallelism is not in use
+     */
+    static int limit() {
+        ScenarioLimiter limiter = active;
+        if (limiter == null) {
+            return Integer.MAX_VALUE;
+        }
+        limiter.lock.lock();
+        try {
+            return limiter.limit;
+        } finally {
+            limiter.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how the limit changed over the run, e.g. {@code 4@0s -> 5@6s -> 3@14s}.
+     *
+     * @return the limit timeline, or an empty string when adaptive parallelism is not in use
+     */
+    public static String timeline() {
+        ScenarioLimiter limiter = active;
+        if (limiter == null) {
+            return "";
+        }
+        limiter.lock.lock();
+        try {
+            return String.join(" -> ", limiter.timeline);
+        } finally {
+            limiter.lock.unlock();
+        }
+    }
+
+    private void adjustEvery(long windowMillis) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(windowMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            adjust(RequestWindow.roll());
+        }
+    }
+
+    private void adjust(RequestWindow.Snapshot window) {
+        if (window.calls() < MIN_SAMPLES) {
+            return;
+        }
+        baselineMicros = baselineMicros == Long.MAX_VALUE
+                ? window.p90Micros()
+                : Math.min(window.p90Micros(), baselineMicros + baselineMicros / 20);
+
+        lock.lock();
+        try {
+            int previous = limit;
+            if (window.errorRate() > MAX_ERROR_RATE) {
+                limit = Math.max(1, limit * 3 / 4);
+            } else if (window.p90Micros() > baselineMicros * SHRINK_TOLERANCE) {
+                limit = Math.max(1, limit - 1);
+            } else if (window.p90Micros() <= baselineMicros * GROW_TOLERANCE && waiting > 0) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            if (limit != previous) {
+                timeline.add(entry(limit));
+                slotFreed.signalAll();
+                log.info("Scenario parallelism {} -> {} (p90 {} ms, baseline {} ms, errors {}%, {} waiting)",
+                        previous, limit, window.p90Micros() / 1_000, baselineMicros / 1_000,
+                        Math.round(window.errorRate() * 1_000) / 10.0, waiting);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String entry(int level) {
+        return level + "@" + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos) + "s";
+    }
+}
@@ -0,0 +1,210 @@
+package eu.delimata.bookstore.parallel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.delimata.bookstore.utils.Config;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.platform.engine.EngineExecutionListener;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.reporting.ReportEntry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Longest-first scheduling from recorded scenario durations.
+ * <ul>
+ *     <li>{@link #order} sorts the discovered tree so the scenarios expected to take longest are handed to the
+ *     workers first (LPT): scenarios by their recorded duration, features by their longest scenario.</li>
+ *     <li>{@link #recording} measures every scenario of the run, less any wait for a {@link ScenarioLimiter} slot;
+ *     {@link #finish} stores the measurements in the history (unless running a shard) and reports the predicted
+ *     and actual duration of the whole run.</li>
+ * </ul>
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.schedule.longestFirst} / {@code SCHEDULE_LONGEST_FIRST} - reorder scenarios (default true)</li>
+ *     <li>{@code bookstore.schedule.history} / {@code SCHEDULE_HISTORY} - history file, kept outside {@code build}
+ *     so it survives {@code clean} (default .bookstore/scenario-history.json)</li>
+ *     <li>{@code bookstore.schedule.report} / {@code SCHEDULE_REPORT} - run report
+ *     (default build/reports/schedule/schedule.json)</li>
+ * </ul>
+ */
+@Slf4j
+final class ScenarioSchedule {
+
+    private static final int SLOWEST_REPORTED = 10;
+
+    private final boolean longestFirst = Config.getBoolean("bookstore.schedule.longestFirst", "SCHEDULE_LONGEST_FIRST", true);
+    private final Path reportPath = Path.of(Config.get("bookstore.schedule.report", "SCHEDULE_REPORT",
+            "build/reports/schedule/schedule.json"));
+    private final ScenarioHistory history = ScenarioHistory.load(Path.of(Config.get("bookstore.schedule.history",
+            "SCHEDULE_HISTORY", ".bookstore/scenario-history.json")));
+
+    private final ConcurrentMap<TestDescriptor, Long> startedNanos = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TestDescriptor, Long> durationMillis = new ConcurrentHashMap<>();
+
+    ScenarioHistory history() {
+        return history;
+    }
+
+    /**
+     * Reorders the children of every container longest-first. A no-op without history or when switched off.
+     *
+     * @param root the discovered engine descriptor
+     */
+    void order(TestDescriptor root) {
+        if (longestFirst && !history.isEmpty()) {
+            orderChildren(root);
+        }
+    }
+
+    /**
+     * Wraps the engine's listener so that every scenario is timed from start to finish.
+     *
+     * @param listener the launcher's listener
+     * @return a listener that measures scenarios and forwards every event
+     */
+    EngineExecutionListener recording(EngineExecutionListener listener) {
+        return new EngineExecutionListener() {
+
+            @Override
+            public void dynamicTestRegistered(TestDescriptor testDescriptor) {
+                listener.dynamicTestRegistered(testDescriptor);
+            }
+
+            @Override
+            public void executionSkipped(TestDescriptor testDescriptor, String reason) {
+                listener.executionSkipped(testDescriptor, reason);
+            }
+
+            @Override
+            public void executionStarted(TestDescriptor testDescriptor) {
+                if (testDescriptor.isTest()) {
+                    ScenarioLimiter.takeWaitedNanos();
+                    startedNanos.put(testDescriptor, System.nanoTime());
+                }
+                listener.executionStarted(testDescriptor);
+            }
+
+            @Override
+            public void executionFinished(TestDescriptor testDescriptor, TestExecutionResult testExecutionResult) {
+                Long started = startedNanos.remove(testDescriptor);
+                if (started != null) {
+                    // Time spent queued for an adaptive-parallelism slot says nothing about the scenario
+                    long millis = (System.nanoTime() - started - ScenarioLimiter.takeWaitedNanos()) / 1_000_000;
+                    durationMillis.put(testDescriptor, millis);
+                    history.record(ScenarioHistory.keyOf(testDescriptor), millis);
+                }
+                listener.executionFinished(testDescriptor, testExecutionResult);
+            }
+
+            @Override
+            public void reportingEntryPublished(TestDescriptor testDescriptor, ReportEntry entry) {
+                listener.reportingEntryPublished(testDescriptor, entry);
+            }
+        };
+    }
+
+    /**
+     * Saves the measured durations and reports how the run compared with the prediction from history.
+     *
+     * @param root         the executed engine descriptor
+     * @param workers      scenarios that could run at the same time
+     * @param actualMillis wall-clock duration of the run
+     */
+    void finish(TestDescriptor root, int workers, long actualMillis) {
+        try {
+            report(root, workers, actualMillis);
+        } finally {
+            // The engine, and this schedule with it, serves every run of its launcher, e.g. each pass of a soak
+            startedNanos.clear();
+            durationMillis.clear();
+        }
+    }
+
+    private void report(TestDescriptor root, int workers, long actualMillis) {
+        List<TestDescriptor> scenarios = new ArrayList<>();
+        collectScenarios(root, scenarios);
+        if (scenarios.isEmpty()) {
+            return;
+        }
+        long predictedMillis = history.isEmpty()
+                ? -1
+                : ScenarioHistory.predictMillis(scenarios.stream().map(history::estimateMillis).toList(), workers);
+        // Shards split by the history, so it may only change between sharded runs, e.g. from a full run
+        if (!ScenarioShards.configured()) {
+            history.save();
+        }
+
+        log.info("Scenario schedule: {} scenarios on {} workers{}, predicted {}, actual {} ms",
+                scenarios.size(), workers, longestFirst && !history.isEmpty() ? " longest-first" : "",
+                predictedMillis < 0 ? "n/a (no history yet)" : predictedMillis + " ms", actualMillis);
+        writeReport(scenarios, workers, predictedMillis, actualMillis);
+    }
+
+    private void writeReport(List<TestDescriptor> scenarios, int workers, long predictedMillis, long actualMillis) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenarios", scenarios.size());
+        report.put("workers", workers);
+        report.put("longestFirst", longestFirst && !history.isEmpty());
+        report.put("predictedMillis", predictedMillis < 0 ? null : predictedMillis);
+        report.put("actualMillis", actualMillis);
+        report.put("slowest", scenarios.stream()
+                .filter(durationMillis::containsKey)
+                .sorted(Comparator.comparing(durationMillis::get, Comparator.reverseOrder()))
+                .limit(SLOWEST_REPORTED)
+                .map(scenario -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("scenario", scenario.getDisplayName());
+                    entry.put("id", ScenarioHistory.keyOf(scenario));
+                    entry.put("estimatedMillis", history.isEmpty() ? null : history.estimateMillis(scenario));
+                    entry.put("actualMillis", durationMillis.get(scenario));
+                    return entry;
+                })
+                .toList());
+        try {
+            if (reportPath.getParent() != null) {
+                Files.createDirectories(reportPath.getParent());
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+        } catch (IOException e) {
+            log.error("Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sorts children by their longest expected scenario and returns that of the given node.
+     */
+    private long orderChildren(TestDescriptor node) {
+        if (node.isTest()) {
+            return history.estimateMillis(node);
+        }
+        Map<TestDescriptor, Long> weights = new LinkedHashMap<>();
+        for (TestDescriptor child : new ArrayList<>(node.getChildren())) {
+            weights.put(child, orderChildren(child));
+        }
+        List<TestDescriptor> ordered = new ArrayList<>(weights.keySet());
+        // Stable sort: equally long children keep their discovery order
+        ordered.sort(Comparator.comparing(weights::get, Comparator.reverseOrder()));
+        ordered.forEach(node::removeChild);
+        ordered.forEach(node::addChild);
+        return weights.values().stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    private static void collectScenarios(TestDescriptor node, List<TestDescriptor> scenarios) {
+        if (node.isTest()) {
+            scenarios.add(node);
+        }
+        node.getChildren().forEach(child -> collectScenarios(child, scenarios));
+    }
+}
@@ -0,0 +1,94 @@
+package eu.delimata.bookstore.parallel;
+
+import eu.delimata.bookstore.utils.Config;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.platform.engine.TestDescriptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Splits the scenarios across {@code N} processes or containers so that each shard is expected to take about as long.
+ * Scenarios are dealt longest-first, each to the shard with the least expected time so far, using the durations in
+ * {@link ScenarioHistory}. The split only depends on the discovered scenarios and the history, so every shard computes
+ * the same one: shards must start from the same history file, which is why sharded runs leave it unchanged.
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.shard} / {@code SHARD} - this process's shard as {@code i/N}, e.g. {@code 2/3}
+ *     (default: no sharding)</li>
+ * </ul>
+ */
+@Slf4j
+final class ScenarioShards {
+
+    private ScenarioShards() {
+    }
+
+    /**
+     * @return whether this process runs one shard of the suite
+     */
+    static boolean configured() {
+        return !spec().isEmpty();
+    }
+
+    /**
+     * Keeps only this process's shard of the discovered scenarios. A no-op unless a shard is configured.
+     *
+     * @param root    the discovered engine descriptor
+     * @param history recorded scenario durations
+     */
+    static void apply(TestDescriptor root, ScenarioHistory history) {
+        String spec = spec();
+        if (spec.isEmpty() || root.getChildren().isEmpty()) {
+            return;
+        }
+        String[] parts = spec.split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Shard must be given as i/N, e.g. 2/3, but was: " + spec);
+        }
+        int shard = Integer.parseInt(parts[0].trim());
+        int shards = Integer.parseInt(parts[1].trim());
+        if (shards < 1 || shard < 1 || shard > shards) {
+            throw new IllegalArgumentException("Shard " + spec + " is out of range: expected 1 <= i <= N");
+        }
+
+        List<TestDescriptor> scenarios = new ArrayList<>();
+        collectScenarios(root, scenarios);
+        scenarios.sort(Comparator.comparingLong((TestDescriptor scenario) -> history.estimateMillis(scenario)).reversed()
+                .thenComparing(ScenarioHistory::keyOf));
+        long[] loads = new long[shards];
+        int kept = 0;
+        for (TestDescriptor scenario : scenarios) {
+            int target = 0;
+            for (int i = 1; i < shards; i++) {
+                if (loads[i] < loads[target]) {
+                    target = i;
+                }
+            }
+            loads[target] += history.estimateMillis(scenario);
+            if (target == shard - 1) {
+                kept++;
+            } else {
+                scenario.removeFromHierarchy();
+            }
+        }
+        root.prune();
+        log.info("Shard {}: {} of {} scenarios, expected {} ms (all shards: {} ms)", spec, kept, scenarios.size(),
+                loads[shard - 1], Arrays.stream(loads).mapToObj(Long::toString).collect(Collectors.joining(" / ")));
+    }
+
+    private static String spec() {
+        return Config.get("bookstore.shard", "SHARD", "").trim();
+    }
+
+    private static void collectScenarios(TestDescriptor node, List<TestDescriptor> scenarios) {
+        if (node.isTest()) {
+            scenarios.add(node);
+        }
+        node.getChildren().forEach(child -> collectScenarios(child, scenarios));
+    }
+}
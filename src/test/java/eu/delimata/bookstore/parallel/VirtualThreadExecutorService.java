@@ -0,0 +1,105 @@
+package eu.delimata.bookstore.parallel;
+
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestExecutorService;
+import org.junit.platform.engine.support.hierarchical.Node.ExecutionMode;
+import org.junit.platform.engine.support.hierarchical.ResourceLock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Runs concurrent test tasks on a fixed set of virtual-thread workers.
+ * <ul>
+ *     <li>Workers are long-lived rather than one thread per scenario: Cucumber keeps one runner (glue, object
+ *     factory) per thread, so reusing threads keeps that cost at one runner per worker.</li>
+ *     <li>A thread waiting in {@link #invokeAll} for its children runs queued tasks itself, so containers
+ *     waiting on scenarios can never starve the workers.</li>
+ *     <li>Tasks take their JUnit resource locks before running, as in the fork-join executor.</li>
+ * </ul>
+ */
+class VirtualThreadExecutorService implements HierarchicalTestExecutorService {
+
+    private final BlockingQueue<FutureTask<Void>> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    VirtualThreadExecutorService(int parallelism) {
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(Thread.ofVirtual().name("scenario-worker-" + i).start(this::work));
+        }
+    }
+
+    @Override
+    public Future<Void> submit(TestTask testTask) {
+        FutureTask<Void> future = new FutureTask<>(() -> run(testTask), null);
+        queue.add(future);
+        return future;
+    }
+
+    @Override
+    public void invokeAll(List<? extends TestTask> testTasks) {
+        List<FutureTask<Void>> concurrent = new ArrayList<>();
+        for (TestTask testTask : testTasks) {
+            if (testTask.getExecutionMode() == ExecutionMode.CONCURRENT) {
+                FutureTask<Void> future = new FutureTask<>(() -> run(testTask), null);
+                concurrent.add(future);
+                queue.add(future);
+            }
+        }
+        for (TestTask testTask : testTasks) {
+            if (testTask.getExecutionMode() != ExecutionMode.CONCURRENT) {
+                run(testTask);
+            }
+        }
+        for (FutureTask<Void> future : concurrent) {
+            awaitHelping(future);
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                queue.take().run();
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private void awaitHelping(FutureTask<Void> future) {
+        while (!future.isDone()) {
+            FutureTask<Void> queued = queue.poll();
+            if (queued == null) {
+                break;
+            }
+            queued.run();
+        }
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for test tasks", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Test task failed outside JUnit's own error handling", e.getCause());
+        }
+    }
+
+    @SuppressWarnings("try") // the lock is only held, never referenced
+    private static void run(TestTask testTask) {
+        try (ResourceLock lock = testTask.getResourceLock().acquire()) {
+            testTask.execute();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while acquiring resource lock", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package eu.delimata.bookstore.report;
+
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm;
+
+/**
+ * The Allure Cucumber plugin, writing through the {@link AsyncResultsWriter} and flushing it once the run has finished.
+ * Registered as {@code cucumber.plugin} in {@code junit-platform.properties}.
+ */
+public class AsyncAllureCucumberPlugin extends AllureCucumber7Jvm {
+
+    public AsyncAllureCucumberPlugin() {
+        super(AsyncResultsWriter.lifecycle());
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        super.setEventPublisher(publisher);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> AsyncResultsWriter.shared().flush());
+    }
+}
@@ -0,0 +1,308 @@
+package eu.delimata.bookstore.report;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import eu.delimata.bookstore.utils.Config;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Stage;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import io.qameta.allure.util.PropertiesUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static io.qameta.allure.AllureConstants.TEST_RESULT_CONTAINER_FILE_SUFFIX;
+import static io.qameta.allure.AllureConstants.TEST_RESULT_FILE_SUFFIX;
+
+/**
+ * Allure results writer that keeps serialization and file I/O off the test threads.
+ * <ul>
+ *     <li>Every write only queues the result, or the attachment bytes, and returns.</li>
+ *     <li>One background thread drains the queue in batches and writes them to {@code allure.results.directory}
+ *     or, with bundling on, appends them to a compressed bundle next to it
+ *     ({@code build/allure-results-1.zip}, ...), which {@code gradle allureReport} expands before generating.</li>
+ *     <li>{@link #flush} waits for the queue and closes the current bundle; it runs when the test run finishes
+ *     and again on JVM shutdown.</li>
+ * </ul>
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.allure.bundle} / {@code ALLURE_BUNDLE} - write one compressed bundle instead of many files
+ *     (default false)</li>
+ *     <li>{@code bookstore.allure.batchSize} / {@code ALLURE_BATCH_SIZE} - files written per batch (default 64)</li>
+ *     <li>{@code bookstore.allure.flushTimeoutSeconds} / {@code ALLURE_FLUSH_TIMEOUT_SECONDS} - flush wait limit
+ *     (default 60)</li>
+ * </ul>
+ */
+@Slf4j
+public final class AsyncResultsWriter implements AllureResultsWriter {
+
+    private static final boolean BUNDLE = Config.getBoolean("bookstore.allure.bundle", "ALLURE_BUNDLE", false);
+    private static final int BATCH_SIZE = Config.getInt("bookstore.allure.batchSize", "ALLURE_BATCH_SIZE", 64);
+    private static final long FLUSH_TIMEOUT_SECONDS =
+            Config.getLong("bookstore.allure.flushTimeoutSeconds", "ALLURE_FLUSH_TIMEOUT_SECONDS", 60);
+
+    private static final AsyncResultsWriter SHARED = new AsyncResultsWriter(resultsDirectory());
+    private static AllureLifecycle lifecycle;
+
+    private final Path directory;
+    private final ObjectMapper mapper = resultsMapper();
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition drained = lock.newCondition();
+    private int pending;
+
+    private ZipOutputStream bundle;
+    private int bundlePart;
+    private long filesWritten;
+    private long bytesWritten;
+    private long filesReported;
+
+    private AsyncResultsWriter(Path directory) {
+        this.directory = directory;
+        Thread.ofPlatform()
+                .name("allure-results-writer")
+                .daemon(true)
+                .start(this::writeQueued);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "allure-results-flush"));
+    }
+
+    /**
+     * Returns the process-wide writer, targeting {@code allure.results.directory}.
+     *
+     * @return the shared writer
+     */
+    public static AsyncResultsWriter shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the Allure lifecycle backed by the shared writer, installing it as Allure's global lifecycle on first use.
+     *
+     * @return the lifecycle
+     */
+    public static synchronized AllureLifecycle lifecycle() {
+        if (lifecycle == null) {
+            lifecycle = new AllureLifecycle(SHARED);
+            Allure.setLifecycle(lifecycle);
+        }
+        return lifecycle;
+    }
+
+    @Override
+    public void write(TestResult testResult) {
+        enqueue(new Entry(testResult.getUuid() + TEST_RESULT_FILE_SUFFIX, testResult));
+    }
+
+    @Override
+    public void write(TestResultContainer testResultContainer) {
+        enqueue(new Entry(testResultContainer.getUuid() + TEST_RESULT_CONTAINER_FILE_SUFFIX, testResultContainer));
+    }
+
+    @Override
+    public void write(String source, InputStream attachment) {
+        // Attachments reach the writer as in-memory streams, so reading them here does not touch the disk
+        try (attachment) {
+            writeFile(source, attachment.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read Allure attachment " + source, e);
+        }
+    }
+
+    /**
+     * Queues a file for the results directory, e.g. {@code environment.xml}.
+     *
+     * @param name    file name within the results
+     * @param content file content
+     */
+    public void writeFile(String name, byte[] content) {
+        enqueue(new Entry(name, content));
+    }
+
+    /**
+     * Waits until every queued file is written and closes the current bundle, so the results are complete on disk.
+     * Files queued afterwards start a new bundle.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            queue.add(Entry.FLUSH);
+            pending++;
+            long waitNanos = TimeUnit.SECONDS.toNanos(FLUSH_TIMEOUT_SECONDS);
+            while (pending > 0 && waitNanos > 0) {
+                waitNanos = drained.awaitNanos(waitNanos);
+            }
+            if (pending > 0) {
+                log.warn("Allure results: {} files still queued after {} s", pending, FLUSH_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        lock.lock();
+        try {
+            pending++;
+        } finally {
+            lock.unlock();
+        }
+        queue.add(entry);
+    }
+
+    private void writeQueued() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            for (Entry entry : batch) {
+                try {
+                    if (entry == Entry.FLUSH) {
+                        closeBundle();
+                        report();
+                    } else {
+                        byte[] content = entry.content() instanceof byte[] bytes
+                                ? bytes
+                                : mapper.writeValueAsBytes(entry.content());
+                        write(entry.name(), content);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.error("Could not write Allure results file {}: {}", entry.name(), e.getMessage());
+                }
+            }
+            lock.lock();
+            try {
+                pending -= batch.size();
+                if (pending == 0) {
+                    drained.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(String name, byte[] content) throws IOException {
+        if (BUNDLE) {
+            if (bundle == null) {
+                openBundle();
+            }
+            bundle.putNextEntry(new ZipEntry(name));
+            bundle.write(content);
+            bundle.closeEntry();
+        } else {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(name), content);
+        }
+        filesWritten++;
+        bytesWritten += content.length;
+    }
+
+    private void openBundle() throws IOException {
+        Path path = bundlePath(++bundlePart);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        bundle = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+    }
+
+    private void closeBundle() throws IOException {
+        if (bundle != null) {
+            bundle.close();
+            bundle = null;
+        }
+    }
+
+    private void report() {
+        if (filesWritten > filesReported) {
+            log.info("Allure results: {} files ({} KB) written to {}", filesWritten, bytesWritten / 1024,
+                    BUNDLE ? bundlePath(bundlePart) : directory);
+            filesReported = filesWritten;
+        }
+    }
+
+    private Path bundlePath(int part) {
+        return directory.resolveSibling(directory.getFileName() + "-" + part + ".zip");
+    }
+
+    /**
+     * Resolves the results directory the way Allure does: system property, then {@code allure.properties}.
+     */
+    private static Path resultsDirectory() {
+        return Path.of(PropertiesUtils.loadAllureProperties().getProperty("allure.results.directory", "allure-results"));
+    }
+
+    /**
+     * Builds a mapper that writes the Allure model the way Allure's own writer does: null fields left out, enums
+     * as lower-case values, indentation only with {@code allure.results.indentOutput}. The model classes are plain
+     * beans, so the project's Jackson serves instead of the copy shaded into Allure's internals.
+     */
+    private static ObjectMapper resultsMapper() {
+        return JsonMapper.builder()
+                .configure(MapperFeature.USE_WRAPPER_NAME_AS_PROPERTY_NAME, true)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(SerializationFeature.INDENT_OUTPUT, Boolean.getBoolean("allure.results.indentOutput"))
+                .addModule(new SimpleModule()
+                        .addSerializer(Status.class, new LowerCaseSerializer<>(Status.class))
+                        .addSerializer(Stage.class, new LowerCaseSerializer<>(Stage.class))
+                        .addSerializer(Parameter.Mode.class, new LowerCaseSerializer<>(Parameter.Mode.class)))
+                .build();
+    }
+
+    private static final class LowerCaseSerializer<E extends Enum<E>> extends StdSerializer<E> {
+
+        private static final long serialVersionUID = 1L;
+
+        private LowerCaseSerializer(Class<E> type) {
+            super(type);
+        }
+
+        @Override
+        public void serialize(E value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeString(value.name().toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * A queued results file: an Allure model object still to be serialized, or raw bytes.
+     */
+    private record Entry(String name, Object content) {
+
+        private static final Entry FLUSH = new Entry("", null);
+    }
+}
@@ -0,0 +1,65 @@
+package eu.delimata.bookstore.report;
+
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.Stage;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.util.ResultsUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Results that belong to the run as a whole rather than to one scenario, e.g. the endpoint latency table.
+ * Allure has no slot for the run itself, so each summary becomes a passed result of its own in the
+ * {@value #SUITE} suite, carrying its content as attachments. Both go through the {@link AsyncResultsWriter},
+ * so they land in the results directory, or the bundle, with the scenarios' results.
+ */
+public final class RunSummary {
+
+    static final String SUITE = "Run summary";
+
+    private RunSummary() {
+    }
+
+    /**
+     * Queues a summary and its attachments. Must be called before the run finishes, e.g. from an after-all hook,
+     * so the writer's final flush includes it.
+     *
+     * @param name     name of the summary, unique within the report (shards of a run need names of their own)
+     * @param contents the attachments
+     */
+    public static void write(String name, Content... contents) {
+        AsyncResultsWriter writer = AsyncResultsWriter.shared();
+        List<Attachment> attachments = new ArrayList<>(contents.length);
+        for (Content content : contents) {
+            String source = UUID.randomUUID() + "-attachment" + content.fileExtension();
+            writer.writeFile(source, content.bytes());
+            attachments.add(new Attachment().setName(content.name()).setType(content.type()).setSource(source));
+        }
+        writer.write(new TestResult()
+                .setUuid(UUID.randomUUID().toString())
+                .setHistoryId(SUITE + ": " + name)
+                .setName(name)
+                .setFullName(SUITE + ": " + name)
+                .setLabels(List.of(ResultsUtils.createSuiteLabel(SUITE)))
+                .setStatus(Status.PASSED)
+                .setStage(Stage.FINISHED)
+                .setStart(ManagementFactory.getRuntimeMXBean().getStartTime())
+                .setStop(System.currentTimeMillis())
+                .setAttachments(attachments));
+    }
+
+    /**
+     * One attachment of a summary.
+     *
+     * @param name          name shown in the report
+     * @param type          MIME type, e.g. {@code application/json}
+     * @param fileExtension extension of the attachment file, including the dot
+     * @param bytes         the content
+     */
+    public record Content(String name, String type, String fileExtension, byte[] bytes) {
+    }
+}
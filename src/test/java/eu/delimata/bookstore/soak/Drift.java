@@ -0,0 +1,64 @@
+package eu.delimata.bookstore.soak;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * How one metric moved over a soak: the mean of the first quarter of the windows against the mean of the last
+ * quarter, and the least-squares slope over all of them.
+ *
+ * @param early         mean over the first quarter of the windows
+ * @param late          mean over the last quarter of the windows
+ * @param changePercent change from early to late, {@code null} when early is zero
+ * @param slopePerHour  trend of the metric per hour of soak
+ */
+record Drift(double early, double late, Double changePercent, double slopePerHour) {
+
+    /**
+     * @param windows windows in time order
+     * @param metric  the metric of a window
+     * @return the drift, or {@code null} with fewer than two windows
+     */
+    static Drift of(List<SoakWindow> windows, ToDoubleFunction<SoakWindow> metric) {
+        int n = windows.size();
+        if (n < 2) {
+            return null;
+        }
+        int quarter = Math.max(1, n / 4);
+        double early = 0;
+        double late = 0;
+        for (int i = 0; i < quarter; i++) {
+            early += metric.applyAsDouble(windows.get(i));
+            late += metric.applyAsDouble(windows.get(n - 1 - i));
+        }
+        early /= quarter;
+        late /= quarter;
+
+        double meanHour = 0;
+        double meanValue = 0;
+        for (SoakWindow window : windows) {
+            meanHour += midHour(window);
+            meanValue += metric.applyAsDouble(window);
+        }
+        meanHour /= n;
+        meanValue /= n;
+        double covariance = 0;
+        double variance = 0;
+        for (SoakWindow window : windows) {
+            double dx = midHour(window) - meanHour;
+            covariance += dx * (metric.applyAsDouble(window) - meanValue);
+            variance += dx * dx;
+        }
+        double slope = variance == 0 ? 0.0 : covariance / variance;
+        Double change = early == 0 ? null : round((late - early) / early * 100);
+        return new Drift(round(early), round(late), change, round(slope));
+    }
+
+    private static double midHour(SoakWindow window) {
+        return (window.startMinute() + window.endMinute()) / 120.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1_000) / 1_000.0;
+    }
+}
@@ -0,0 +1,63 @@
+package eu.delimata.bookstore.soak;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+/**
+ * Heap, garbage collection and thread figures of the test JVM, read from the platform MXBeans.
+ * Collection counts and times are reported as the difference since the previous sample.
+ */
+final class JvmSampler {
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    private long gcCount;
+    private long gcMillis;
+
+    JvmSampler() {
+        sample();
+    }
+
+    /**
+     * @return figures since the previous call
+     */
+    JvmSample sample() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        long afterGc = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage collectionUsage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (collectionUsage != null) {
+                afterGc += collectionUsage.getUsed();
+            }
+        }
+        JvmSample sample = new JvmSample(
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / MB,
+                afterGc / MB,
+                count - gcCount,
+                millis - gcMillis,
+                ManagementFactory.getThreadMXBean().getThreadCount());
+        gcCount = count;
+        gcMillis = millis;
+        return sample;
+    }
+
+    /**
+     * One reading of the test JVM.
+     *
+     * @param heapUsedMb    heap in use when sampled
+     * @param heapAfterGcMb heap left after the last collection of each pool, the figure that grows with a leak
+     * @param gcCount       collections since the previous sample
+     * @param gcMillis      time spent collecting since the previous sample
+     * @param threads       live platform threads
+     */
+    record JvmSample(double heapUsedMb, double heapAfterGcMb, long gcCount, long gcMillis, int threads) {
+    }
+}
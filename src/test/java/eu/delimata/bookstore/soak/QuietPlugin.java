@@ -0,0 +1,10 @@
+package eu.delimata.bookstore.soak;
+
+import io.cucumber.plugin.Plugin;
+
+/**
+ * Cucumber plugin that listens to nothing. Cucumber does not accept an empty plugin list, so a soak passes this one
+ * to replace the plugins of junit-platform.properties when no others are asked for.
+ */
+public final class QuietPlugin implements Plugin {
+}
@@ -0,0 +1,82 @@
+package eu.delimata.bookstore.soak;
+
+import eu.delimata.bookstore.metrics.LatencyHistogram;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts finished scenarios and their durations per window, across every suite run of a soak.
+ * Failures are also counted by scenario name over the whole soak, to tell a flaky scenario from a degrading API.
+ */
+final class ScenarioTally implements TestExecutionListener {
+
+    private final AtomicReference<Window> current = new AtomicReference<>(new Window());
+    private final Map<String, Long> startedNanos = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failuresByName = new ConcurrentHashMap<>();
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier) {
+        if (testIdentifier.isTest()) {
+            startedNanos.put(testIdentifier.getUniqueId(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result) {
+        if (!testIdentifier.isTest()) {
+            return;
+        }
+        Long started = startedNanos.remove(testIdentifier.getUniqueId());
+        Window window = current.get();
+        window.scenarios.increment();
+        if (started != null) {
+            window.durationMillis.record((System.nanoTime() - started) / 1_000_000);
+        }
+        if (result.getStatus() != TestExecutionResult.Status.SUCCESSFUL) {
+            window.failed.increment();
+            failuresByName.computeIfAbsent(testIdentifier.getDisplayName(), name -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Closes the current window and starts a new one.
+     *
+     * @return scenarios finished in the closed window
+     */
+    Counts roll() {
+        Window closed = current.getAndSet(new Window());
+        return new Counts(closed.scenarios.sum(), closed.failed.sum(), closed.durationMillis.percentile(90));
+    }
+
+    /**
+     * @return failures per scenario name since the soak started
+     */
+    Map<String, Long> failuresByName() {
+        Map<String, Long> failures = new TreeMap<>();
+        failuresByName.forEach((name, count) -> failures.put(name, count.sum()));
+        return failures;
+    }
+
+    /**
+     * Scenarios of one window.
+     *
+     * @param scenarios scenarios finished
+     * @param failed    scenarios that did not pass
+     * @param p90Millis 90th percentile scenario duration
+     */
+    record Counts(long scenarios, long failed, long p90Millis) {
+    }
+
+    private static final class Window {
+        private final LongAdder scenarios = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LatencyHistogram durationMillis = new LatencyHistogram();
+    }
+}
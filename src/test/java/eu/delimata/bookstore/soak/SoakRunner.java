@@ -0,0 +1,273 @@
+package eu.delimata.bookstore.soak;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.delimata.bookstore.api.EntityLedger;
+import eu.delimata.bookstore.api.FixturePool;
+import eu.delimata.bookstore.api.ResourceJanitor;
+import eu.delimata.bookstore.metrics.EndpointLatencies;
+import eu.delimata.bookstore.metrics.RequestWindow;
+import eu.delimata.bookstore.parallel.BookstoreCucumberEngine;
+import eu.delimata.bookstore.stub.BookstoreStubServer;
+import eu.delimata.bookstore.utils.Config;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+import static io.cucumber.junit.platform.engine.Constants.FILTER_TAGS_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClasspathResource;
+import static org.junit.platform.launcher.EngineFilter.includeEngines;
+
+/**
+ * Soak runner: runs the scenarios matching a tag expression over and over, in this JVM, for a fixed duration, and
+ * reports how the run drifted rather than only whether it passed.
+ * <ul>
+ *     <li>Every window it records scenarios run and failed, request count, error rate and latency percentiles
+ *     (from its own {@link RequestWindow.Series}), and heap after GC, GC time and threads of the test JVM.</li>
+ *     <li>Items the scenarios create, update and delete are kept in the {@link EntityLedger}; at the end of each
+ *     window a sample is read back and compared with what the server acknowledged.</li>
+ *     <li>The report holds the window time series plus, per metric, the first quarter against the last quarter and
+ *     the slope per hour. It is rewritten after every window, so a soak cut short still leaves one.</li>
+ * </ul>
+ * The stub, the fixture pool and the test data pool stay up across passes and are stopped once at the end.
+ * Allure is left out of the passes by default, as hours of scenario results would only fill the disk.
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.soak.tags} / {@code SOAK_TAGS} - Cucumber tag expression of the scenarios to loop
+ *     (default {@code @smoke and @CRUD})</li>
+ *     <li>{@code bookstore.soak.duration} / {@code SOAK_DURATION} - run length in seconds (default 3600)</li>
+ *     <li>{@code bookstore.soak.windowSeconds} / {@code SOAK_WINDOW_SECONDS} - length of a window (default 60)</li>
+ *     <li>{@code bookstore.soak.warmupWindows} / {@code SOAK_WARMUP_WINDOWS} - first windows left out of the
+ *     drift figures (default 1)</li>
+ *     <li>{@code bookstore.soak.ledgerSize} / {@code SOAK_LEDGER_SIZE} - written items kept for read-back
+ *     (default 10000)</li>
+ *     <li>{@code bookstore.soak.verifySample} / {@code SOAK_VERIFY_SAMPLE} - items read back per window
+ *     (default 50)</li>
+ *     <li>{@code bookstore.soak.plugins} / {@code SOAK_PLUGINS} - Cucumber plugins for the passes
+ *     (default none)</li>
+ *     <li>{@code bookstore.soak.report} / {@code SOAK_REPORT} - JSON report path</li>
+ * </ul>
+ */
+@Slf4j
+public final class SoakRunner {
+
+    private static volatile boolean running;
+
+    private final Duration window;
+    private final int warmupWindows;
+    private final int verifySample;
+    private final Path reportPath;
+    private final Map<String, Object> settings;
+    private final RequestWindow.Series requests = RequestWindow.openSeries();
+    private final ScenarioTally tally = new ScenarioTally();
+    private final JvmSampler jvm = new JvmSampler();
+    private final AtomicLong suiteRuns = new AtomicLong();
+    private final List<SoakWindow> windows = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+    private long windowStartNanos = startNanos;
+
+    private SoakRunner(Duration window, int warmupWindows, int verifySample, Path reportPath, Map<String, Object> settings) {
+        this.window = window;
+        this.warmupWindows = warmupWindows;
+        this.verifySample = verifySample;
+        this.reportPath = reportPath;
+        this.settings = settings;
+    }
+
+    /**
+     * Tells whether a soak is in progress, in which case the suite's after-all hooks leave the stub and the fixture
+     * pool running for the next pass.
+     *
+     * @return true while a soak is running
+     */
+    public static boolean isRunning() {
+        return running;
+    }
+
+    public static void main(String[] args) {
+        String tags = Config.get("bookstore.soak.tags", "SOAK_TAGS", "@smoke and @CRUD");
+        Duration duration = Duration.ofSeconds(Config.getLong("bookstore.soak.duration", "SOAK_DURATION", 3600));
+        Duration window = Duration.ofSeconds(Math.max(1, Config.getLong("bookstore.soak.windowSeconds", "SOAK_WINDOW_SECONDS", 60)));
+        int warmupWindows = Config.getInt("bookstore.soak.warmupWindows", "SOAK_WARMUP_WINDOWS", 1);
+        int ledgerSize = Config.getInt("bookstore.soak.ledgerSize", "SOAK_LEDGER_SIZE", 10_000);
+        int verifySample = Config.getInt("bookstore.soak.verifySample", "SOAK_VERIFY_SAMPLE", 50);
+        String plugins = Config.get("bookstore.soak.plugins", "SOAK_PLUGINS", "");
+        Path reportPath = Path.of(Config.get("bookstore.soak.report", "SOAK_REPORT", "build/reports/soak/soak-report.json"));
+
+        // Per-request Allure attachments and URI logging only make sense with Allure listening
+        if (System.getProperty("bookstore.report.http") == null && plugins.isBlank()) {
+            System.setProperty("bookstore.report.http", "false");
+        }
+        if (BookstoreStubServer.isEnabled()) {
+            System.setProperty("baseUrl", BookstoreStubServer.start().baseUrl());
+        }
+        EntityLedger.start(ledgerSize);
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("tags", tags);
+        settings.put("durationSeconds", duration.toSeconds());
+        settings.put("windowSeconds", window.toSeconds());
+        settings.put("warmupWindows", warmupWindows);
+        settings.put("ledgerSize", ledgerSize);
+        settings.put("verifySample", verifySample);
+        settings.put("baseUrl", System.getProperty("baseUrl"));
+
+        LauncherDiscoveryRequestBuilder request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectClasspathResource("eu/delimata"))
+                .filters(includeEngines(BookstoreCucumberEngine.ENGINE_ID))
+                .configurationParameter(GLUE_PROPERTY_NAME, "eu.delimata")
+                .configurationParameter(FILTER_TAGS_PROPERTY_NAME, tags);
+        // Replaces the plugins listed in junit-platform.properties
+        request.configurationParameter(PLUGIN_PROPERTY_NAME, plugins.isBlank() ? QuietPlugin.class.getName() : plugins);
+
+        log.info("Starting soak: [{}] for {}, {} windows, {} items kept for read-back", tags, duration, window, ledgerSize);
+        SoakRunner soak = new SoakRunner(window, warmupWindows, verifySample, reportPath, settings);
+        soak.run(request.build(), duration);
+    }
+
+    private void run(LauncherDiscoveryRequest request, Duration duration) {
+        running = true;
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(task -> Thread.ofPlatform()
+                .name("soak-window")
+                .daemon(true)
+                .unstarted(task));
+        ticker.scheduleAtFixedRate(this::closeWindow, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            Launcher launcher = LauncherFactory.create();
+            long deadlineNanos = startNanos + duration.toNanos();
+            while (System.nanoTime() < deadlineNanos) {
+                suiteRuns.incrementAndGet();
+                launcher.execute(request, tally);
+            }
+        } finally {
+            ticker.shutdownNow();
+            running = false;
+        }
+        closeWindow();
+        String table = EndpointLatencies.table();
+        if (!table.isEmpty()) {
+            log.info("Endpoint latencies:\n{}", table);
+        }
+        writeReport(true);
+        requests.close();
+        ResourceJanitor.sweep();
+        FixturePool.stop();
+        BookstoreStubServer.stop();
+    }
+
+    private synchronized void closeWindow() {
+        try {
+            long now = System.nanoTime();
+            RequestWindow.Snapshot http = requests.roll();
+            ScenarioTally.Counts scenarios = tally.roll();
+            JvmSampler.JvmSample sample = jvm.sample();
+            EntityLedger.Verification ledger = EntityLedger.verify(verifySample);
+            SoakWindow closed = new SoakWindow(windows.size() + 1, minutes(windowStartNanos), minutes(now),
+                    suiteRuns.getAndSet(0), scenarios.scenarios(), scenarios.failed(), scenarios.p90Millis(),
+                    http.calls(), http.errors(), round(http.errorRate()),
+                    millis(http.p50Micros()), millis(http.p90Micros()), millis(http.p99Micros()), millis(http.maxMicros()),
+                    new JvmSampler.JvmSample(round(sample.heapUsedMb()), round(sample.heapAfterGcMb()),
+                            sample.gcCount(), sample.gcMillis(), sample.threads()),
+                    ledger);
+            windowStartNanos = now;
+            windows.add(closed);
+            log.info(String.format("Soak window %d [%.2f-%.2f min]: %d scenarios (%d failed), %d requests, err %.2f%%, "
+                            + "p50/p90/p99 %.1f/%.1f/%.1f ms, heap after GC %.1f MB, GC %d (%d ms), %d threads, "
+                            + "read-back %d/%d intact",
+                    closed.index(), closed.startMinute(), closed.endMinute(), closed.scenarios(), closed.failedScenarios(),
+                    closed.requests(), closed.errorRate() * 100, closed.p50Millis(), closed.p90Millis(), closed.p99Millis(),
+                    closed.jvm().heapAfterGcMb(), closed.jvm().gcCount(), closed.jvm().gcMillis(), closed.jvm().threads(),
+                    ledger.intact(), ledger.checked()));
+            writeReport(false);
+        } catch (RuntimeException e) {
+            // An exception would cancel the scheduled task and with it every later window
+            log.error("Error: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void writeReport(boolean complete) {
+        // Drift leaves out the warm-up and a last window cut short by the end of the soak, which would skew the late mean
+        int to = windows.size();
+        if (to > 0 && windows.get(to - 1).endMinute() - windows.get(to - 1).startMinute() < window.toSeconds() / 120.0) {
+            to--;
+        }
+        List<SoakWindow> settled = windows.subList(Math.min(warmupWindows, to), to);
+        Map<String, Drift> drift = new LinkedHashMap<>();
+        drift(drift, settled, "scenariosPerMinute", SoakWindow::scenariosPerMinute);
+        drift(drift, settled, "scenarioFailureRate", SoakWindow::failureRate);
+        drift(drift, settled, "scenarioP90Millis", SoakWindow::scenarioP90Millis);
+        drift(drift, settled, "requestErrorRate", SoakWindow::errorRate);
+        drift(drift, settled, "p50Millis", SoakWindow::p50Millis);
+        drift(drift, settled, "p90Millis", SoakWindow::p90Millis);
+        drift(drift, settled, "p99Millis", SoakWindow::p99Millis);
+        drift(drift, settled, "heapAfterGcMb", window -> window.jvm().heapAfterGcMb());
+        drift(drift, settled, "gcMillisPerMinute", SoakWindow::gcMillisPerMinute);
+        drift(drift, settled, "threads", window -> window.jvm().threads());
+        drift(drift, settled, "readBackMismatchRate", SoakWindow::mismatchRate);
+        if (complete) {
+            log.info(String.format("%-22s %12s %12s %9s %14s", "metric", "early", "late", "change%", "slope/hour"));
+            drift.forEach((metric, value) -> log.info(String.format("%-22s %12.3f %12.3f %9s %14.3f", metric,
+                    value.early(), value.late(), value.changePercent() == null ? "-" : String.format("%.1f", value.changePercent()),
+                    value.slopePerHour())));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("complete", complete);
+        report.put("elapsedMinutes", minutes(System.nanoTime()));
+        report.put("settings", settings);
+        report.put("drift", drift);
+        report.put("failuresByScenario", tally.failuresByName());
+        report.put("endpoints", EndpointLatencies.summary());
+        report.put("windows", windows);
+        try {
+            if (reportPath.getParent() != null) {
+                Files.createDirectories(reportPath.getParent());
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+            if (complete) {
+                log.info("Soak report saved to {}", reportPath.toAbsolutePath());
+            }
+        } catch (IOException e) {
+            log.error("Error: {}", e.getMessage());
+        }
+    }
+
+    private static void drift(Map<String, Drift> drift, List<SoakWindow> windows, String metric,
+                              ToDoubleFunction<SoakWindow> value) {
+        Drift computed = Drift.of(windows, value);
+        if (computed != null) {
+            drift.put(metric, computed);
+        }
+    }
+
+    private double minutes(long nanos) {
+        return round((nanos - startNanos) / 60e9);
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1_000) / 1_000.0;
+    }
+}
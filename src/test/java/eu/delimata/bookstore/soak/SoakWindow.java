@@ -0,0 +1,51 @@
+package eu.delimata.bookstore.soak;
+
+import eu.delimata.bookstore.api.EntityLedger;
+
+/**
+ * Everything measured in one window of a soak; one point of the time series in the report.
+ *
+ * @param index             window number, from 1
+ * @param startMinute       start, in minutes since the soak started
+ * @param endMinute         end, in minutes since the soak started
+ * @param suiteRuns         passes over the selected scenarios started in the window
+ * @param scenarios         scenarios finished
+ * @param failedScenarios   scenarios that did not pass
+ * @param scenarioP90Millis 90th percentile scenario duration
+ * @param requests          HTTP requests sent by the scenarios
+ * @param requestErrors     requests that failed, were throttled (429) or hit a server error (5xx)
+ * @param errorRate         share of requests counted as errors
+ * @param p50Millis         median request latency
+ * @param p90Millis         90th percentile request latency
+ * @param p99Millis         99th percentile request latency
+ * @param maxMillis         slowest request
+ * @param jvm               heap, GC and threads of the test JVM at the end of the window
+ * @param ledger            read-back of written items at the end of the window
+ */
+record SoakWindow(int index, double startMinute, double endMinute, long suiteRuns,
+                  long scenarios, long failedScenarios, long scenarioP90Millis,
+                  long requests, long requestErrors, double errorRate,
+                  double p50Millis, double p90Millis, double p99Millis, double maxMillis,
+                  JvmSampler.JvmSample jvm, EntityLedger.Verification ledger) {
+
+    double scenariosPerMinute() {
+        return perMinute(scenarios);
+    }
+
+    double failureRate() {
+        return scenarios == 0 ? 0.0 : (double) failedScenarios / scenarios;
+    }
+
+    double gcMillisPerMinute() {
+        return perMinute(jvm.gcMillis());
+    }
+
+    double mismatchRate() {
+        return ledger.checked() == 0 ? 0.0 : (double) ledger.mismatches() / ledger.checked();
+    }
+
+    private double perMinute(long value) {
+        double minutes = endMinute - startMinute;
+        return minutes <= 0 ? 0.0 : value / minutes;
+    }
+}
@@ -1,15 +1,13 @@
 package eu.delimata.bookstore.stepdefinitions;
 
 import eu.delimata.bookstore.BookstoreWorld;
+import eu.delimata.bookstore.api.FixturePool;
 import eu.delimata.bookstore.model.Author;
 import eu.delimata.bookstore.stepdefinitions.builders.AuthorBuilder;
 import eu.delimata.bookstore.utils.TestData;
-import io.restassured.path.json.JsonPath;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
-
 import static eu.delimata.bookstore.enums.HttpCode.OK;
 import static eu.delimata.bookstore.support.ResponseAssert.assertThat;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -42,37 +40,37 @@ public class AuthorStepHelpers {
 
     /**
      * Ensures that an author exists both in payload and in the bookstore.
-     * Creates and stores an author if necessary.
+     * Leases one the scenario may change or delete if necessary.
      */
     public void ensureAuthorExists() {
-        if (world.getLastAuthorPayload() == null) {
-            int id = TestData.uniqueId();
-            Author author = AuthorBuilder.anAuthor()
-                    .withId(id)
-                    .withIdBook(id)
-                    .buildRandom();
+        ensureAuthorExists(FixturePool.Mode.EXCLUSIVE);
+    }
 
-            assertThat(world.getAuthorsApi().create(author)).hasStatusCode(OK);
+    /**
+     * Ensures that an author exists both in payload and in the bookstore, for scenarios that only read it.
+     * Leases one that other scenarios may be reading as well if necessary.
+     */
+    public void ensureReadableAuthorExists() {
+        ensureAuthorExists(FixturePool.Mode.SHARED);
+    }
+
+    private void ensureAuthorExists(FixturePool.Mode mode) {
+        if (world.getLastAuthorPayload() == null) {
+            Author author = leaseOrCreateAuthor(mode);
             world.setLastAuthorPayload(author);
-            world.setLastAuthorId(id);
-            log.debug("Created and stored author with ID: {}", id);
+            world.setLastAuthorId(author.id());
+            log.debug("Stored author with ID: {}", author.id());
         }
     }
 
     /**
-     * Creates an author in the bookstore and returns it.
+     * Provides an author that exists in the bookstore and that the scenario may change or delete.
      *
-     * @return the created author
+     * @return the author
      */
     public Author createAndReturnAuthor() {
-        int id = TestData.uniqueId();
-        Author author = AuthorBuilder.anAuthor()
-                .withId(id)
-                .withIdBook(id)
-                .buildRandom();
-
-        assertThat(world.getAuthorsApi().create(author)).hasStatusCode(OK);
-        log.debug("Created author with ID: {}", id);
+        Author author = leaseOrCreateAuthor(FixturePool.Mode.EXCLUSIVE);
+        log.debug("Provided author with ID: {}", author.id());
         return author;
     }
 
@@ -90,19 +88,11 @@ public class AuthorStepHelpers {
      * Verifies that an author appears in the author list.
      */
     public void verifyAuthorInList() {
-        String listJson = world.getAuthorsApi()
-                .getAll()
-                .then()
-                .statusCode(OK.toInt())
-                .extract()
-                .asString();
-
-        JsonPath jsonPath = JsonPath.from(listJson);
-        List<Integer> authorIds = jsonPath.getList("id", Integer.class);
+        boolean listed = world.getAuthorsApi().containsAuthor(world.getLastAuthorId());
 
-        assertThat(authorIds)
+        assertThat(listed)
                 .as("Author list should contain the author with ID: %d", world.getLastAuthorId())
-                .contains(world.getLastAuthorId());
+                .isTrue();
 
         log.debug("Verified author with ID {} appears in list", world.getLastAuthorId());
     }
@@ -146,4 +136,20 @@ public class AuthorStepHelpers {
             default -> throw new IllegalArgumentException("Unsupported test case: " + caseDescription);
         };
     }
+
+    /**
+     * Takes an author from the {@link FixturePool}, or creates one through the scenario's API when the pool is off.
+     */
+    private Author leaseOrCreateAuthor(FixturePool.Mode mode) {
+        if (FixturePool.isEnabled()) {
+            return FixturePool.authors().lease(mode);
+        }
+        int id = TestData.uniqueId();
+        Author author = AuthorBuilder.anAuthor()
+                .withId(id)
+                .withIdBook(id)
+                .buildRandom();
+        assertThat(world.getAuthorsApi().create(author)).hasStatusCode(OK);
+        return author;
+    }
 }
\ No newline at end of file
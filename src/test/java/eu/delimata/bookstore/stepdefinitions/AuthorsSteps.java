@@ -1,6 +1,7 @@
 package eu.delimata.bookstore.stepdefinitions;
 
 import eu.delimata.bookstore.BookstoreWorld;
+import eu.delimata.bookstore.api.PayloadTemplate;
 import eu.delimata.bookstore.model.Author;
 import eu.delimata.bookstore.stepdefinitions.builders.AuthorBuilder;
 import eu.delimata.bookstore.stepdefinitions.builders.AuthorPayloadBuilder;
@@ -11,8 +12,6 @@ import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Map;
-
 import static eu.delimata.bookstore.enums.HttpCode.*;
 import static eu.delimata.bookstore.support.ResponseAssert.assertThat;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -116,7 +115,7 @@ public class AuthorsSteps {
 
     @When("^I try to add a new author with missing data (.*)$")
     public void tryAddAuthorWithMissing(String missingField) {
-        Map<String, Object> payload = AuthorPayloadBuilder.validPayload()
+        PayloadTemplate.Payload payload = AuthorPayloadBuilder.validPayload()
                 .withId(TestData.uniqueId())
                 .remove(missingField.trim())
                 .build();
@@ -195,8 +194,13 @@ public class AuthorsSteps {
 
     @Then("the author is no longer available to users")
     @Then("the author no longer appears in search or details")
-    @Then("the system informs me that the author item is not available")
     public void authorNoLongerAvailable() {
+        world.setLastResponse(world.getAuthorsApi().getById(world.getLastAuthorId()));
+        assertThat(world.getLastResponse()).hasStatusCode(NOT_FOUND);
+    }
+
+    @Then("the system informs me that the author item is not available")
+    public void authorItemNotAvailable() {
         assertThat(world.getLastResponse()).hasStatusCode(NOT_FOUND);
     }
 
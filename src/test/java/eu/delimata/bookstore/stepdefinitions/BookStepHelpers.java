@@ -1,15 +1,13 @@
 package eu.delimata.bookstore.stepdefinitions;
 
 import eu.delimata.bookstore.BookstoreWorld;
+import eu.delimata.bookstore.api.FixturePool;
 import eu.delimata.bookstore.model.Book;
 import eu.delimata.bookstore.stepdefinitions.builders.BookBuilder;
 import eu.delimata.bookstore.utils.TestData;
-import io.restassured.path.json.JsonPath;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
-
 import static eu.delimata.bookstore.enums.HttpCode.OK;
 import static eu.delimata.bookstore.support.ResponseAssert.assertThat;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,35 +39,37 @@ public class BookStepHelpers {
 
     /**
      * Ensures that a book exists both in payload and in the bookstore.
-     * Creates and stores a book if necessary.
+     * Leases one the scenario may change or delete if necessary.
      */
     public void ensureBookExists() {
-        if (world.getLastBookPayload() == null) {
-            int id = TestData.uniqueId();
-            Book book = BookBuilder.aBook()
-                    .withId(id)
-                    .buildRandom();
+        ensureBookExists(FixturePool.Mode.EXCLUSIVE);
+    }
 
-            assertThat(world.getBooksApi().create(book)).hasStatusCode(OK);
+    /**
+     * Ensures that a book exists both in payload and in the bookstore, for scenarios that only read it.
+     * Leases one that other scenarios may be reading as well if necessary.
+     */
+    public void ensureReadableBookExists() {
+        ensureBookExists(FixturePool.Mode.SHARED);
+    }
+
+    private void ensureBookExists(FixturePool.Mode mode) {
+        if (world.getLastBookPayload() == null) {
+            Book book = leaseOrCreateBook(mode);
             world.setLastBookPayload(book);
-            world.setLastBookId(id);
-            log.debug("Created and stored book with ID: {}", id);
+            world.setLastBookId(book.id());
+            log.debug("Stored book with ID: {}", book.id());
         }
     }
 
     /**
-     * Creates a book in the bookstore and returns it.
+     * Provides a book that exists in the bookstore and that the scenario may change or delete.
      *
-     * @return the created book
+     * @return the book
      */
     public Book createAndReturnBook() {
-        int id = TestData.uniqueId();
-        Book book = BookBuilder.aBook()
-                .withId(id)
-                .buildRandom();
-
-        assertThat(world.getBooksApi().create(book)).hasStatusCode(OK);
-        log.debug("Created book with ID: {}", id);
+        Book book = leaseOrCreateBook(FixturePool.Mode.EXCLUSIVE);
+        log.debug("Provided book with ID: {}", book.id());
         return book;
     }
 
@@ -87,19 +87,11 @@ public class BookStepHelpers {
      * Verifies that a book appears in the book list.
      */
     public void verifyBookInList() {
-        String listJson = world.getBooksApi()
-                .getAll()
-                .then()
-                .statusCode(OK.toInt())
-                .extract()
-                .asString();
-
-        JsonPath jsonPath = JsonPath.from(listJson);
-        List<Integer> bookIds = jsonPath.getList("id", Integer.class);
+        boolean listed = world.getBooksApi().containsBook(world.getLastBookId());
 
-        assertThat(bookIds)
+        assertThat(listed)
                 .as("Book list should contain the book with ID: %d", world.getLastBookId())
-                .contains(world.getLastBookId());
+                .isTrue();
 
         log.debug("Verified book with ID {} appears in list", world.getLastBookId());
     }
@@ -126,11 +118,7 @@ public class BookStepHelpers {
     public int getBookIdForCase(String caseDescription) {
         return switch (caseDescription) {
             case "was already removed" -> {
-                int id = TestData.uniqueId();
-                Book book = BookBuilder.aBook()
-                        .withId(id)
-                        .buildRandom();
-                assertThat(world.getBooksApi().create(book)).hasStatusCode(OK);
+                int id = leaseOrCreateBook(FixturePool.Mode.EXCLUSIVE).id();
                 assertThat(world.getBooksApi().delete(id)).hasStatusCode(OK);
                 yield id;
             }
@@ -139,4 +127,19 @@ public class BookStepHelpers {
             default -> throw new IllegalArgumentException("Unsupported test case: " + caseDescription);
         };
     }
+
+    /**
+     * Takes a book from the {@link FixturePool}, or creates one through the scenario's API when the pool is off.
+     */
+    private Book leaseOrCreateBook(FixturePool.Mode mode) {
+        if (FixturePool.isEnabled()) {
+            return FixturePool.books().lease(mode);
+        }
+        int id = TestData.uniqueId();
+        Book book = BookBuilder.aBook()
+                .withId(id)
+                .buildRandom();
+        assertThat(world.getBooksApi().create(book)).hasStatusCode(OK);
+        return book;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package eu.delimata.bookstore.stepdefinitions;
 
 import eu.delimata.bookstore.BookstoreWorld;
+import eu.delimata.bookstore.api.PayloadTemplate;
 import eu.delimata.bookstore.model.Book;
 import eu.delimata.bookstore.stepdefinitions.builders.BookBuilder;
 import eu.delimata.bookstore.stepdefinitions.builders.BookPayloadBuilder;
@@ -11,8 +12,6 @@ import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Map;
-
 import static eu.delimata.bookstore.enums.HttpCode.*;
 import static eu.delimata.bookstore.support.ResponseAssert.assertThat;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -121,7 +120,7 @@ public class BooksSteps {
 
     @When("^I try to add a new book with missing data (.*)$")
     public void iTryToAddBookWithMissingData(String missingField) {
-        Map<String, Object> payload = BookPayloadBuilder.validPayload()
+        PayloadTemplate.Payload payload = BookPayloadBuilder.validPayload()
                 .withId(TestData.uniqueId())
                 .remove(missingField.trim())
                 .build();
@@ -202,8 +201,13 @@ public class BooksSteps {
 
     @Then("I should see that the book is no longer available to users")
     @Then("the book no longer appears in search or details")
-    @Then("the system informs me that the book item is not available")
     public void theBookIsNoLongerAvailable() {
+        world.setLastResponse(world.getBooksApi().getById(world.getLastBookId()));
+        assertThat(world.getLastResponse()).hasStatusCode(NOT_FOUND);
+    }
+
+    @Then("the system informs me that the book item is not available")
+    public void theBookItemIsNotAvailable() {
         assertThat(world.getLastResponse()).hasStatusCode(NOT_FOUND);
     }
 
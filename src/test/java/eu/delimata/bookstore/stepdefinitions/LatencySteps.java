@@ -0,0 +1,85 @@
+package eu.delimata.bookstore.stepdefinitions;
+
+import eu.delimata.bookstore.BookstoreWorld;
+import eu.delimata.bookstore.api.ResilientReads;
+import eu.delimata.bookstore.metrics.LatencyHistogram;
+import io.cucumber.java.en.Then;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static eu.delimata.bookstore.enums.HttpCode.OK;
+import static eu.delimata.bookstore.support.ResponseAssert.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+public class LatencySteps {
+
+    private final BookstoreWorld world;
+    private final BookStepHelpers bookHelpers;
+    private final AuthorStepHelpers authorHelpers;
+
+    public LatencySteps(BookstoreWorld world) {
+        this.world = world;
+        this.bookHelpers = new BookStepHelpers(world);
+        this.authorHelpers = new AuthorStepHelpers(world);
+    }
+
+    // THEN steps - Verifications
+
+    @Then("^the response arrived within (\\d+) ms$")
+    public void responseArrivedWithin(long limitMillis) {
+        assertThat(world.getLastResponse()).respondedWithin(Duration.ofMillis(limitMillis));
+    }
+
+    @Then("^the (book|author) (list|details) responds? within (\\d+) ms at p(\\d+(?:\\.\\d+)?) over (\\d+) calls$")
+    public void respondsWithinAtPercentile(String resource, String view, long limitMillis, double percentile, int calls) {
+        // Sent as is: a hedge would hide the slow attempt, and the resilience timeout would fail it before it is measured
+        Supplier<Response> call = directly(call(resource, view));
+
+        LatencyHistogram latencyMicros = new LatencyHistogram();
+        for (int i = 0; i < calls; i++) {
+            Response response = call.get();
+            assertThat(response).hasStatusCode(OK);
+            latencyMicros.record(response.getTimeIn(TimeUnit.MICROSECONDS));
+        }
+
+        long observedMillis = TimeUnit.MICROSECONDS.toMillis(latencyMicros.percentile(percentile));
+        log.debug("{} {}: p{} = {} ms over {} calls (max {} ms)", resource, view, percentile, observedMillis,
+                calls, TimeUnit.MICROSECONDS.toMillis(latencyMicros.max()));
+
+        assertThat(observedMillis)
+                .as("p%s response time of the %s %s over %d calls, in ms (max was %d ms)", percentile, resource, view,
+                        calls, TimeUnit.MICROSECONDS.toMillis(latencyMicros.max()))
+                .isLessThanOrEqualTo(limitMillis);
+    }
+
+    private static Supplier<Response> directly(Supplier<Response> call) {
+        return () -> ResilientReads.direct(call);
+    }
+
+    /**
+     * Returns the request to repeat for the given resource and view. Details need an existing item,
+     * so one is created when the scenario has none yet.
+     */
+    private Supplier<Response> call(String resource, String view) {
+        boolean list = "list".equals(view);
+        if ("book".equals(resource)) {
+            if (list) {
+                return () -> world.getBooksApi().getAll();
+            }
+            bookHelpers.ensureReadableBookExists();
+            int bookId = world.getLastBookId();
+            return () -> world.getBooksApi().getById(bookId);
+        }
+        if (list) {
+            return () -> world.getAuthorsApi().getAll();
+        }
+        authorHelpers.ensureReadableAuthorExists();
+        int authorId = world.getLastAuthorId();
+        return () -> world.getAuthorsApi().getById(authorId);
+    }
+}
@@ -2,6 +2,7 @@ package eu.delimata.bookstore.stepdefinitions.builders;
 
 import eu.delimata.bookstore.model.Author;
 import eu.delimata.bookstore.utils.TestData;
+import eu.delimata.bookstore.utils.TestDataPool;
 
 /**
  * Builder pattern implementation for creating Author objects in tests.
@@ -61,8 +62,8 @@ public class AuthorBuilder {
         return new Author(
                 authorId,
                 idBook != null ? idBook : authorId,
-                firstName != null ? firstName : TestData.randomFirstName(),
-                lastName != null ? lastName : TestData.randomLastName()
+                firstName != null ? firstName : TestDataPool.firstName(),
+                lastName != null ? lastName : TestDataPool.lastName()
         );
     }
 }
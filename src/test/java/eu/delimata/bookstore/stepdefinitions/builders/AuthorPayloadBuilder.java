@@ -1,17 +1,21 @@
 package eu.delimata.bookstore.stepdefinitions.builders;
 
+import eu.delimata.bookstore.api.PayloadTemplate;
+import eu.delimata.bookstore.model.Author;
 import eu.delimata.bookstore.utils.TestData;
 
-import java.util.HashMap;
-import java.util.Map; /**
- * Builder for creating Map-based payloads for API calls.
- * Useful for testing scenarios with missing or invalid author data.
+/**
+ * Builder for creating raw author payloads for API calls, rendered from {@link PayloadTemplate#AUTHOR}.
+ * Useful for testing scenarios with missing or invalid author data: fields that were never set or were removed
+ * are left out of the body.
  */
 public class AuthorPayloadBuilder {
-    private final Map<String, Object> payload;
+    private static final PayloadTemplate<Author> TEMPLATE = PayloadTemplate.AUTHOR;
+
+    private final Object[] values = new Object[TEMPLATE.size()];
+    private final boolean[] present = new boolean[TEMPLATE.size()];
 
     private AuthorPayloadBuilder() {
-        this.payload = new HashMap<>();
     }
 
     public static AuthorPayloadBuilder validPayload() {
@@ -24,33 +28,43 @@ public class AuthorPayloadBuilder {
     }
 
     public AuthorPayloadBuilder withId(Integer id) {
-        payload.put("id", id);
-        return this;
+        return with("id", id);
     }
 
     public AuthorPayloadBuilder withIdBook(Integer idBook) {
-        payload.put("idBook", idBook);
-        return this;
+        return with("idBook", idBook);
     }
 
     public AuthorPayloadBuilder withFirstName(String firstName) {
-        payload.put("firstName", firstName);
-        return this;
+        return with("firstName", firstName);
     }
 
     public AuthorPayloadBuilder withLastName(String lastName) {
-        payload.put("lastName", lastName);
-        return this;
+        return with("lastName", lastName);
     }
 
     public AuthorPayloadBuilder remove(String fieldName) {
-        String mappedField = mapFieldName(fieldName);
-        payload.remove(mappedField);
+        int index = TEMPLATE.indexOf(mapFieldName(fieldName));
+        values[index] = null;
+        present[index] = false;
         return this;
     }
 
-    public Map<String, Object> build() {
-        return new HashMap<>(payload);
+    public PayloadTemplate.Payload build() {
+        PayloadTemplate<Author> template = TEMPLATE;
+        for (int i = 0; i < present.length; i++) {
+            if (!present[i]) {
+                template = template.without(i);
+            }
+        }
+        return template.payload(values);
+    }
+
+    private AuthorPayloadBuilder with(String field, Object value) {
+        int index = TEMPLATE.indexOf(field);
+        values[index] = value;
+        present[index] = true;
+        return this;
     }
 
     private String mapFieldName(String fieldName) {
@@ -2,6 +2,7 @@ package eu.delimata.bookstore.stepdefinitions.builders;
 
 import eu.delimata.bookstore.model.Book;
 import eu.delimata.bookstore.utils.TestData;
+import eu.delimata.bookstore.utils.TestDataPool;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -78,10 +79,10 @@ public class BookBuilder {
     public Book buildRandom() {
         return new Book(
                 id != null ? id : TestData.uniqueId(),
-                title != null ? title : TestData.randomTitle(),
-                description != null ? description : TestData.randomDescription(),
+                title != null ? title : TestDataPool.title(),
+                description != null ? description : TestDataPool.description(),
                 pageCount != null ? pageCount : TestData.randomPageCount(),
-                excerpt != null ? excerpt : TestData.randomExcerpt(),
+                excerpt != null ? excerpt : TestDataPool.excerpt(),
                 publishDate != null ? publishDate : getCurrentDateTime()
         );
     }
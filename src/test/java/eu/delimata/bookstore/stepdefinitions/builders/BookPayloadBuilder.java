@@ -1,15 +1,20 @@
 package eu.delimata.bookstore.stepdefinitions.builders;
 
-import java.util.HashMap;
-import java.util.Map; /**
- * Builder for creating Map-based payloads for API calls.
- * Useful for testing scenarios with missing or invalid data.
+import eu.delimata.bookstore.api.PayloadTemplate;
+import eu.delimata.bookstore.model.Book;
+
+/**
+ * Builder for creating raw book payloads for API calls, rendered from {@link PayloadTemplate#BOOK}.
+ * Useful for testing scenarios with missing or invalid data: fields that were never set or were removed
+ * are left out of the body.
  */
 public class BookPayloadBuilder {
-    private final Map<String, Object> payload;
+    private static final PayloadTemplate<Book> TEMPLATE = PayloadTemplate.BOOK;
+
+    private final Object[] values = new Object[TEMPLATE.size()];
+    private final boolean[] present = new boolean[TEMPLATE.size()];
 
     private BookPayloadBuilder() {
-        this.payload = new HashMap<>();
     }
 
     public static BookPayloadBuilder validPayload() {
@@ -22,43 +27,51 @@ public class BookPayloadBuilder {
     }
 
     public BookPayloadBuilder withId(Integer id) {
-        payload.put("id", id);
-        return this;
+        return with("id", id);
     }
 
     public BookPayloadBuilder withTitle(String title) {
-        payload.put("title", title);
-        return this;
+        return with("title", title);
     }
 
     public BookPayloadBuilder withDescription(String description) {
-        payload.put("description", description);
-        return this;
+        return with("description", description);
     }
 
     public BookPayloadBuilder withPageCount(Integer pageCount) {
-        payload.put("pageCount", pageCount);
-        return this;
+        return with("pageCount", pageCount);
     }
 
     public BookPayloadBuilder withExcerpt(String excerpt) {
-        payload.put("excerpt", excerpt);
-        return this;
+        return with("excerpt", excerpt);
     }
 
     public BookPayloadBuilder withPublishDate(String publishDate) {
-        payload.put("publishDate", publishDate);
-        return this;
+        return with("publishDate", publishDate);
     }
 
     public BookPayloadBuilder remove(String fieldName) {
-        String mappedField = mapFieldName(fieldName);
-        payload.remove(mappedField);
+        int index = TEMPLATE.indexOf(mapFieldName(fieldName));
+        values[index] = null;
+        present[index] = false;
         return this;
     }
 
-    public Map<String, Object> build() {
-        return new HashMap<>(payload);
+    public PayloadTemplate.Payload build() {
+        PayloadTemplate<Book> template = TEMPLATE;
+        for (int i = 0; i < present.length; i++) {
+            if (!present[i]) {
+                template = template.without(i);
+            }
+        }
+        return template.payload(values);
+    }
+
+    private BookPayloadBuilder with(String field, Object value) {
+        int index = TEMPLATE.indexOf(field);
+        values[index] = value;
+        present[index] = true;
+        return this;
     }
 
     private String mapFieldName(String fieldName) {
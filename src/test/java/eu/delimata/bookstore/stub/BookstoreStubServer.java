@@ -0,0 +1,205 @@
+package eu.delimata.bookstore.stub;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import eu.delimata.bookstore.model.Author;
+import eu.delimata.bookstore.model.Book;
+import eu.delimata.bookstore.utils.Config;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * Embedded, in-process stand-in for the FakeRestAPI bookstore endpoints.
+ * Serves {@code /api/v1/Books} and {@code /api/v1/Authors} from concurrent in-memory storage
+ * on an ephemeral loopback port, so the features can run without leaving the machine.
+ *
+ * <p>Enabled with {@code -Dbookstore.stub=true} (or {@code BOOKSTORE_STUB=true}).
+ * Clients may send {@link #SESSION_HEADER} to get an isolated view of their own writes;
+ * writes sent as {@link #SHARED_SESSION} are seen by every session.</p>
+ */
+@Slf4j
+public final class BookstoreStubServer {
+
+    public static final String SESSION_HEADER = "X-Bookstore-Session";
+    public static final String SHARED_SESSION = "shared";
+
+    private static final String API_PREFIX = "/api/v1/";
+    private static final int SEEDED_BOOKS = 200;
+    private static final int SEEDED_AUTHORS = 200;
+    private static final String SEED_TEXT = "Lorem lorem lorem. Lorem lorem lorem. Lorem lorem lorem.\n";
+
+    private static BookstoreStubServer instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper mapper;
+    private final Catalogue<Book> books;
+    private final Catalogue<Author> authors;
+
+    private BookstoreStubServer(int port) throws IOException {
+        this.mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.books = new Catalogue<>(mapper, Book.class,
+                List.of("title", "description", "pageCount"),
+                Book::id,
+                (book, id) -> new Book(id, book.title(), book.description(), book.pageCount(),
+                        book.excerpt(), book.publishDate()),
+                seedBooks());
+        this.authors = new Catalogue<>(mapper, Author.class,
+                List.of("idBook", "firstName", "lastName"),
+                Author::id,
+                (author, id) -> new Author(id, author.idBook(), author.firstName(), author.lastName()),
+                seedAuthors());
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext(API_PREFIX, this::handle);
+    }
+
+    /**
+     * Tells whether the suite should run against the embedded stub instead of a remote base URL.
+     *
+     * @return true when the stub is enabled in the configuration
+     */
+    public static boolean isEnabled() {
+        return Config.getBoolean("bookstore.stub", "BOOKSTORE_STUB", false);
+    }
+
+    /**
+     * Tells whether the stub has been started in this JVM.
+     *
+     * @return true while the stub is serving requests
+     */
+    public static synchronized boolean isRunning() {
+        return instance != null;
+    }
+
+    /**
+     * Starts the stub once per JVM; later calls return the running instance.
+     *
+     * @return the running stub
+     */
+    public static synchronized BookstoreStubServer start() {
+        if (instance == null) {
+            try {
+                int port = Config.getInt("bookstore.stub.port", "BOOKSTORE_STUB_PORT", 0);
+                BookstoreStubServer stub = new BookstoreStubServer(port);
+                stub.server.start();
+                instance = stub;
+                log.info("Bookstore stub listening on {}", stub.baseUrl());
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot start the bookstore stub server", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the stub if it is running.
+     */
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.server.stop(0);
+            instance.executor.shutdownNow();
+            instance = null;
+            log.info("Bookstore stub stopped");
+        }
+    }
+
+    /**
+     * Forgets the writes of a session nothing will be sent in anymore, so a long run does not keep every finished
+     * scenario's changes. A no-op when the stub is not running or for {@link #SHARED_SESSION}.
+     *
+     * @param session the session, as sent in {@link #SESSION_HEADER}
+     */
+    public static synchronized void endSession(String session) {
+        if (instance != null) {
+            instance.books.dropSession(session);
+            instance.authors.dropSession(session);
+        }
+    }
+
+    /**
+     * Returns the base URL clients should use to reach the stub.
+     *
+     * @return base URL, e.g. {@code http://127.0.0.1:54321}
+     */
+    public String baseUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Reply reply;
+            try {
+                reply = route(exchange);
+            } catch (RuntimeException e) {
+                log.error("Bookstore stub failed on {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                reply = Reply.serverError(e.getMessage());
+            }
+            send(exchange, reply);
+        }
+    }
+
+    private Reply route(HttpExchange exchange) throws IOException {
+        String[] segments = exchange.getRequestURI().getPath().substring(API_PREFIX.length()).split("/");
+        Catalogue<?> catalogue = switch (segments[0].toLowerCase()) {
+            case "books" -> books;
+            case "authors" -> authors;
+            default -> null;
+        };
+        if (catalogue == null || segments.length > 2) {
+            return Reply.notFound();
+        }
+
+        String method = exchange.getRequestMethod().toUpperCase();
+        String session = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+
+        return segments.length == 1
+                ? catalogue.collection(method, session, body)
+                : catalogue.item(method, segments[1], session, body);
+    }
+
+    private void send(HttpExchange exchange, Reply reply) throws IOException {
+        byte[] bytes = reply.body() != null ? mapper.writeValueAsBytes(reply.body()) : new byte[0];
+        String contentType = reply.status() >= 400 ? "application/problem+json" : "application/json";
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(reply.status(), bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static List<Book> seedBooks() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return IntStream.rangeClosed(1, SEEDED_BOOKS)
+                .mapToObj(i -> new Book(i, "Book " + i, SEED_TEXT, i * 100, SEED_TEXT.repeat(5),
+                        now.minusDays(i).toString()))
+                .toList();
+    }
+
+    private static List<Author> seedAuthors() {
+        return IntStream.rangeClosed(1, SEEDED_AUTHORS)
+                .mapToObj(i -> new Author(i, i, "First Name " + i, "Last Name " + i))
+                .toList();
+    }
+}
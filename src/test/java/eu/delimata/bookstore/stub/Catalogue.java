@@ -0,0 +1,232 @@
+package eu.delimata.bookstore.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Concurrent in-memory storage and REST semantics for a single stub resource.
+ * Seeded records are shared and read-only; writes land in a per-session overlay,
+ * so parallel scenarios never see each other's changes (as with the stateless public API).
+ * Writes in the {@link BookstoreStubServer#SHARED_SESSION} overlay are visible to every session,
+ * on top of the seed, e.g. fixtures provisioned before the scenarios run.
+ *
+ * @param <T> resource model type
+ */
+final class Catalogue<T> {
+
+    private static final String DEFAULT_SESSION = "";
+
+    private final ObjectMapper mapper;
+    private final Class<T> type;
+    private final List<String> requiredFields;
+    private final ToIntFunction<T> idOf;
+    private final BiFunction<T, Integer, T> withId;
+    private final NavigableMap<Integer, T> seed;
+    private final AtomicInteger nextId;
+    private final ConcurrentMap<String, ConcurrentMap<Integer, Slot<T>>> sessions = new ConcurrentHashMap<>();
+
+    Catalogue(ObjectMapper mapper,
+              Class<T> type,
+              List<String> requiredFields,
+              ToIntFunction<T> idOf,
+              BiFunction<T, Integer, T> withId,
+              List<T> seedRecords) {
+        this.mapper = mapper;
+        this.type = type;
+        this.requiredFields = List.copyOf(requiredFields);
+        this.idOf = idOf;
+        this.withId = withId;
+        NavigableMap<Integer, T> seeded = new TreeMap<>();
+        seedRecords.forEach(rec -> seeded.put(idOf.applyAsInt(rec), rec));
+        this.seed = Collections.unmodifiableNavigableMap(seeded);
+        this.nextId = new AtomicInteger(seeded.isEmpty() ? 1 : seeded.lastKey() + 1);
+    }
+
+    /**
+     * Handles a request addressed to the collection route, e.g. {@code /api/v1/Books}.
+     */
+    Reply collection(String method, String session, byte[] body) {
+        return switch (method) {
+            case "GET" -> Reply.ok(list(session));
+            case "POST" -> create(session, body);
+            default -> Reply.methodNotAllowed();
+        };
+    }
+
+    /**
+     * Handles a request addressed to a single item route, e.g. {@code /api/v1/Books/{id}}.
+     */
+    Reply item(String method, String rawId, String session, byte[] body) {
+        int id;
+        try {
+            id = Integer.parseInt(rawId);
+        } catch (NumberFormatException exception) {
+            return Reply.validation(Map.of("id", List.of("The value '" + rawId + "' is not valid.")));
+        }
+
+        return switch (method) {
+            case "GET" -> {
+                T found = find(session, id);
+                yield found != null ? Reply.ok(found) : Reply.notFound();
+            }
+            case "PUT" -> update(session, id, body);
+            case "DELETE" -> remove(session, id) ? Reply.ok(null) : Reply.notFound();
+            default -> Reply.methodNotAllowed();
+        };
+    }
+
+    /**
+     * Forgets a session's writes; later requests in it see the seed and shared writes only.
+     */
+    void dropSession(String session) {
+        if (!BookstoreStubServer.SHARED_SESSION.equals(session)) {
+            sessions.remove(key(session));
+        }
+    }
+
+    private Reply create(String session, byte[] body) {
+        Parsed<T> parsed = parse(body);
+        if (parsed.error() != null) {
+            return parsed.error();
+        }
+
+        T value = parsed.value();
+        if (idOf.applyAsInt(value) <= 0) {
+            value = withId.apply(value, nextId.getAndIncrement());
+        }
+        overlay(session).put(idOf.applyAsInt(value), new Slot<>(value));
+        return Reply.ok(value);
+    }
+
+    private Reply update(String session, int id, byte[] body) {
+        Parsed<T> parsed = parse(body);
+        if (parsed.error() != null) {
+            return parsed.error();
+        }
+
+        T value = parsed.value();
+        int bodyId = idOf.applyAsInt(value);
+        if (bodyId != 0 && bodyId != id) {
+            return Reply.validation(Map.of("id",
+                    List.of("The id in the body (" + bodyId + ") does not match the id in the path (" + id + ").")));
+        }
+
+        T stored = bodyId == id ? value : withId.apply(value, id);
+        overlay(session).put(id, new Slot<>(stored));
+        return Reply.ok(stored);
+    }
+
+    private List<T> list(String session) {
+        Map<Integer, Slot<T>> shared = sessions.get(BookstoreStubServer.SHARED_SESSION);
+        Map<Integer, Slot<T>> changes = BookstoreStubServer.SHARED_SESSION.equals(session) ? null : sessions.get(key(session));
+        if ((shared == null || shared.isEmpty()) && (changes == null || changes.isEmpty())) {
+            return new ArrayList<>(seed.values());
+        }
+
+        NavigableMap<Integer, T> merged = new TreeMap<>(seed);
+        applyChanges(merged, shared);
+        applyChanges(merged, changes);
+        return new ArrayList<>(merged.values());
+    }
+
+    private static <T> void applyChanges(NavigableMap<Integer, T> merged, Map<Integer, Slot<T>> changes) {
+        if (changes == null) {
+            return;
+        }
+        changes.forEach((id, slot) -> {
+            if (slot.value() == null) {
+                merged.remove(id);
+            } else {
+                merged.put(id, slot.value());
+            }
+        });
+    }
+
+    private T find(String session, int id) {
+        Map<Integer, Slot<T>> changes = sessions.get(key(session));
+        Slot<T> slot = changes != null ? changes.get(id) : null;
+        return slot != null ? slot.value() : base(id);
+    }
+
+    /**
+     * A record as every session sees it before its own changes: shared writes over the seed.
+     */
+    private T base(int id) {
+        Map<Integer, Slot<T>> shared = sessions.get(BookstoreStubServer.SHARED_SESSION);
+        Slot<T> slot = shared != null ? shared.get(id) : null;
+        return slot != null ? slot.value() : seed.get(id);
+    }
+
+    private boolean remove(String session, int id) {
+        boolean[] removed = new boolean[1];
+        overlay(session).compute(id, (key, slot) -> {
+            T current = slot != null ? slot.value() : base(key);
+            removed[0] = current != null;
+            return new Slot<>(null);
+        });
+        return removed[0];
+    }
+
+    private Parsed<T> parse(byte[] body) {
+        JsonNode node;
+        try {
+            node = mapper.readTree(body);
+        } catch (IOException exception) {
+            return Parsed.failed(Reply.validation(Map.of("$", List.of("The request body is not valid JSON."))));
+        }
+        if (node == null || !node.isObject()) {
+            return Parsed.failed(Reply.validation(Map.of("$", List.of("A non-empty request body is required."))));
+        }
+
+        Map<String, List<String>> errors = new LinkedHashMap<>();
+        for (String field : requiredFields) {
+            JsonNode value = node.get(field);
+            if (value == null || value.isNull()) {
+                errors.put(field, List.of("The " + field + " field is required."));
+            }
+        }
+        if (!errors.isEmpty()) {
+            return Parsed.failed(Reply.validation(errors));
+        }
+
+        try {
+            return new Parsed<>(mapper.treeToValue(node, type), null);
+        } catch (JsonProcessingException exception) {
+            return Parsed.failed(Reply.validation(Map.of("$", List.of(exception.getOriginalMessage()))));
+        }
+    }
+
+    private ConcurrentMap<Integer, Slot<T>> overlay(String session) {
+        return sessions.computeIfAbsent(key(session), ignored -> new ConcurrentHashMap<>());
+    }
+
+    private static String key(String session) {
+        return session == null ? DEFAULT_SESSION : session;
+    }
+
+    /**
+     * Overlay entry; a {@code null} value marks a record deleted within the session.
+     */
+    private record Slot<T>(T value) {}
+
+    private record Parsed<T>(T value, Reply error) {
+        static <T> Parsed<T> failed(Reply error) {
+            return new Parsed<>(null, error);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package eu.delimata.bookstore.stub;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Status code and JSON body produced by the stub for a single request.
+ * Error bodies follow the RFC 7807 problem shape returned by the public ASP.NET API.
+ *
+ * @param status HTTP status code
+ * @param body   object serialized as the response body, or {@code null} for an empty body
+ */
+record Reply(int status, Object body) {
+
+    static Reply ok(Object body) {
+        return new Reply(200, body);
+    }
+
+    static Reply notFound() {
+        return problem(404, "Not Found", "https://tools.ietf.org/html/rfc7231#section-6.5.4", null);
+    }
+
+    static Reply methodNotAllowed() {
+        return problem(405, "Method Not Allowed", "https://tools.ietf.org/html/rfc7231#section-6.5.5", null);
+    }
+
+    static Reply validation(Map<String, List<String>> errors) {
+        return problem(400, "One or more validation errors occurred.",
+                "https://tools.ietf.org/html/rfc7231#section-6.5.1", errors);
+    }
+
+    static Reply serverError(String detail) {
+        Reply reply = problem(500, "Internal Server Error", "https://tools.ietf.org/html/rfc7231#section-6.6.1", null);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) reply.body();
+        body.put("detail", detail);
+        return reply;
+    }
+
+    private static Reply problem(int status, String title, String type, Map<String, List<String>> errors) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", type);
+        body.put("title", title);
+        body.put("status", status);
+        if (errors != null) {
+            body.put("errors", errors);
+        }
+        return new Reply(status, body);
+    }
+}
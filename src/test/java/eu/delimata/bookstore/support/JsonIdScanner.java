@@ -0,0 +1,71 @@
+package eu.delimata.bookstore.support;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Looks for an item id in a JSON array of objects without materialising the array.
+ * The stream is parsed token by token with Jackson's streaming parser, so memory use does not
+ * grow with the size of the list, and parsing stops at the first object whose {@code id} matches.
+ */
+public final class JsonIdScanner {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final String ID_FIELD = "id";
+
+    private JsonIdScanner() {
+    }
+
+    /**
+     * Checks whether a top-level JSON array contains an object with the given {@code id}.
+     * Nested objects and arrays inside the items are skipped without being parsed into values.
+     *
+     * @param json stream positioned at the start of a JSON array; it is closed before returning
+     * @param id   the id to look for
+     * @return {@code true} as soon as a matching item is found, {@code false} once the array is exhausted
+     * @throws IllegalStateException if the document is not an array of objects
+     */
+    public static boolean containsId(InputStream json, int id) {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Expected a JSON array but got " + parser.currentToken());
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                if (objectHasId(parser, id)) {
+                    return true;
+                }
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IllegalStateException("Expected an array of objects but got " + token);
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read JSON list", e);
+        }
+    }
+
+    /**
+     * Walks the fields of the current object. Returns early on a match, leaving the parser mid-object;
+     * otherwise leaves it on the object's {@code END_OBJECT}.
+     */
+    private static boolean objectHasId(JsonParser parser, int id) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // Field names are canonicalised by the factory, so this compares interned strings without allocating
+            boolean isId = ID_FIELD.equals(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (isId && value == JsonToken.VALUE_NUMBER_INT
+                    && parser.getNumberType() == JsonParser.NumberType.INT
+                    && parser.getIntValue() == id) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package eu.delimata.bookstore.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonIdScannerTest {
+
+    @Test
+    void findsIdInFlatList() {
+        assertThat(containsId("[{\"id\":1,\"title\":\"a\"},{\"id\":2,\"title\":\"b\"}]", 2)).isTrue();
+        assertThat(containsId("[{\"id\":1,\"title\":\"a\"},{\"id\":2,\"title\":\"b\"}]", 3)).isFalse();
+        assertThat(containsId("[]", 1)).isFalse();
+    }
+
+    @Test
+    void ignoresIdsOfNestedObjectsAndArrays() {
+        String json = "[{\"id\":1,\"author\":{\"id\":7,\"books\":[{\"id\":8}]},\"tags\":[[{\"id\":9}]]}]";
+        assertThat(containsId(json, 1)).isTrue();
+        assertThat(containsId(json, 7)).isFalse();
+        assertThat(containsId(json, 8)).isFalse();
+        assertThat(containsId(json, 9)).isFalse();
+    }
+
+    @Test
+    void isNotFooledByIdsInsideStrings() {
+        String json = "[{\"title\":\"{\\\"id\\\":5}\",\"description\":\"quote \\\" brace } bracket ] \\\\\",\"id\":6}]";
+        assertThat(containsId(json, 5)).isFalse();
+        assertThat(containsId(json, 6)).isTrue();
+    }
+
+    @Test
+    void matchesOnlyIntegerIds() {
+        assertThat(containsId("[{\"id\":\"4\"},{\"id\":4.0},{\"id\":4294967300}]", 4)).isFalse();
+        assertThat(containsId("[{\"id\":\"4\"},{\"id\":4}]", 4)).isTrue();
+    }
+
+    @Test
+    void findsIdWhenBodyArrivesInPiecesAcrossBufferBoundaries() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= 5_000; i++) {
+            json.append(i == 1 ? "" : ",")
+                    .append("{\"title\":\"").append("x".repeat(i % 50)).append("\\\"é\",\"id\":").append(i)
+                    .append(",\"nested\":{\"id\":-").append(i).append("}}");
+        }
+        byte[] bytes = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        // Every read returns at most 7 bytes, so tokens, escapes and multibyte characters are split between reads
+        assertThat(JsonIdScanner.containsId(new TrickleInputStream(bytes, 7), 4_999)).isTrue();
+        assertThat(JsonIdScanner.containsId(new TrickleInputStream(bytes, 7), -4_999)).isFalse();
+        assertThat(JsonIdScanner.containsId(new TrickleInputStream(bytes, 7), 5_001)).isFalse();
+    }
+
+    @Test
+    void rejectsDocumentsThatAreNotArraysOfObjects() {
+        assertThatThrownBy(() -> containsId("{\"id\":1}", 1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> containsId("[1,2]", 1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static boolean containsId(String json, int id) {
+        return JsonIdScanner.containsId(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), id);
+    }
+
+    private static final class TrickleInputStream extends InputStream {
+
+        private final byte[] bytes;
+        private final int chunk;
+        private int position;
+
+        TrickleInputStream(byte[] bytes, int chunk) {
+            this.bytes = bytes;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read() {
+            return position < bytes.length ? bytes[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= bytes.length) {
+                return -1;
+            }
+            int n = Math.min(Math.min(length, chunk), bytes.length - position);
+            System.arraycopy(bytes, position, buffer, offset, n);
+            position += n;
+            return n;
+        }
+    }
+}
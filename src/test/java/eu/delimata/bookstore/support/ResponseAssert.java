@@ -4,14 +4,16 @@ import eu.delimata.bookstore.enums.HttpCode;
 import io.restassured.response.Response;
 import org.assertj.core.api.AbstractAssert;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Custom AssertJ assertion class for HTTP Response validation.
- * Provides fluent API for asserting HTTP status codes with detailed error messages.
+ * Provides fluent API for asserting HTTP status codes and response times with detailed error messages.
  */
 public class ResponseAssert extends AbstractAssert<ResponseAssert, Response> {
 
@@ -166,6 +168,33 @@ public class ResponseAssert extends AbstractAssert<ResponseAssert, Response> {
         return this;
     }
 
+    /**
+     * Asserts that the response arrived within the given time, measured from sending the request
+     * until its body was read.
+     *
+     * @param limit the maximum acceptable response time
+     * @return this assertion instance for method chaining
+     */
+    public ResponseAssert respondedWithin(Duration limit) {
+        isNotNull();
+
+        long actualMillis = actual.getTimeIn(TimeUnit.MILLISECONDS);
+
+        if (actualMillis < 0) {
+            failWithMessage("Expected response time within <%d ms> but the response time was not measured",
+                    limit.toMillis());
+        }
+        if (actualMillis > limit.toMillis()) {
+            failWithMessage(
+                    "Expected response time within <%d ms> but was <%d ms>",
+                    limit.toMillis(),
+                    actualMillis
+            );
+        }
+
+        return this;
+    }
+
     private String formatHttpCode(HttpCode httpCode) {
         return httpCode != null ? httpCode.name() : "UNKNOWN";
     }
@@ -1,21 +1,13 @@
 package eu.delimata.bookstore.utils;
 
+import eu.delimata.bookstore.report.AsyncResultsWriter;
 import lombok.extern.slf4j.Slf4j;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 @Slf4j
@@ -24,40 +16,36 @@ public final class AllureEnvironmentWriter {
     private AllureEnvironmentWriter() {
     }
 
+    /**
+     * Streams the values into {@code environment.xml} and hands it to the {@link AsyncResultsWriter},
+     * which places it in the configured {@code allure.results.directory} (or results bundle).
+     *
+     * @param environmentValuesSet environment entries shown in the report
+     */
     public static void writeAllureEnvironment(Map<String, String> environmentValuesSet) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
         try {
-            DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-            Document doc = docBuilder.newDocument();
-            Element environment = doc.createElement("environment");
-            doc.appendChild(environment);
-
-            environmentValuesSet
-                    .forEach((key, value) -> {
-                        Element parameter = doc.createElement("parameter");
-                        Element keyElement = doc.createElement("key");
-                        Element valueElement = doc.createElement("value");
-
-                        keyElement.appendChild(doc.createTextNode(key));
-                        valueElement.appendChild(doc.createTextNode(value));
-                        parameter.appendChild(keyElement);
-                        parameter.appendChild(valueElement);
-                        environment.appendChild(parameter);
-                    });
-
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
-            DOMSource source = new DOMSource(doc);
-
-            String allureResultsDirectoryPath = "build/allure-results";
-            String environmentFilePath = allureResultsDirectoryPath + "/environment.xml";
-
-            Files.createDirectories(Paths.get(allureResultsDirectoryPath));
-            StreamResult result = new StreamResult(new File(environmentFilePath));
-            transformer.transform(source, result);
-            log.info("Allure environment data saved.");
-        } catch (ParserConfigurationException | TransformerException | IOException e) {
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            xml.writeStartElement("environment");
+            for (Map.Entry<String, String> entry : environmentValuesSet.entrySet()) {
+                xml.writeStartElement("parameter");
+                xml.writeStartElement("key");
+                xml.writeCharacters(entry.getKey());
+                xml.writeEndElement();
+                xml.writeStartElement("value");
+                xml.writeCharacters(entry.getValue());
+                xml.writeEndElement();
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
             log.error("Error: {}", e.getMessage());
+            return;
         }
+        AsyncResultsWriter.shared().writeFile("environment.xml", out.toByteArray());
+        log.info("Allure environment data queued.");
     }
 }
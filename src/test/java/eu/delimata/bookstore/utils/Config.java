@@ -0,0 +1,76 @@
+package eu.delimata.bookstore.utils;
+
+/**
+ * Utility class for reading framework settings.
+ * A JVM system property wins over the environment variable, which wins over the default.
+ */
+public final class Config {
+
+    private Config() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Resolves a string setting.
+     *
+     * @param property     JVM system property name
+     * @param envVariable  environment variable name
+     * @param defaultValue value used when neither is set
+     * @return resolved value
+     */
+    public static String get(String property, String envVariable, String defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(envVariable);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * Resolves a boolean setting.
+     *
+     * @param property     JVM system property name
+     * @param envVariable  environment variable name
+     * @param defaultValue value used when neither is set
+     * @return resolved value
+     */
+    public static boolean getBoolean(String property, String envVariable, boolean defaultValue) {
+        return Boolean.parseBoolean(get(property, envVariable, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Resolves an integer setting.
+     *
+     * @param property     JVM system property name
+     * @param envVariable  environment variable name
+     * @param defaultValue value used when neither is set
+     * @return resolved value
+     */
+    public static int getInt(String property, String envVariable, int defaultValue) {
+        return Integer.parseInt(get(property, envVariable, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Resolves a long setting.
+     *
+     * @param property     JVM system property name
+     * @param envVariable  environment variable name
+     * @param defaultValue value used when neither is set
+     * @return resolved value
+     */
+    public static long getLong(String property, String envVariable, long defaultValue) {
+        return Long.parseLong(get(property, envVariable, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Resolves a floating point setting.
+     *
+     * @param property     JVM system property name
+     * @param envVariable  environment variable name
+     * @param defaultValue value used when neither is set
+     * @return resolved value
+     */
+    public static double getDouble(String property, String envVariable, double defaultValue) {
+        return Double.parseDouble(get(property, envVariable, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,488 @@
+package eu.delimata.bookstore.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out item ids that do not collide with those of other test processes running against the same backend.
+ * <ul>
+ *     <li>Ids from 1,000,000 up to 900,000,000 are cut into fixed-size ranges; each process reserves whole
+ *     ranges for itself, so processes never meet as long as their ranges are disjoint.</li>
+ *     <li>Ids are handed out from a few stripes, a couple per CPU, each holding a block of the process's range;
+ *     a thread picks its stripe by thread id and takes an id with one compare-and-set. Only taking the next
+ *     block touches the range's counter. Stripes rather than per-thread blocks, as virtual threads come and go
+ *     by the thousand and would each leave most of a block unused.</li>
+ *     <li>The id space stays clear of the seeded items (low ids) and the ids the "never existed" cases rely on.</li>
+ * </ul>
+ * How a process picks its ranges ({@code bookstore.ids.source}):
+ * <ul>
+ *     <li>{@code shard} - shard {@code i/N} ({@code bookstore.shard}) takes ranges {@code i-1}, {@code i-1+N}, ...;
+ *     disjoint for the shards of one run.</li>
+ *     <li>{@code lease} - a lease file per range in a directory shared by all processes (e.g. a mounted volume);
+ *     a process creates the file to own the range and deletes it on exit. Leases not renewed within the lease
+ *     time-to-live are taken over, one process at a time through a claim file, so a crashed process does not hold
+ *     its ranges forever.</li>
+ *     <li>{@code seed} - the range follows from {@code bookstore.ids.seed}, random if unset: disjoint for processes
+ *     given different seeds. Unseeded processes also start at a random point of each range and step through the
+ *     ranges in a random order, so two of them rarely hand out the same id even when they share a range.</li>
+ *     <li>{@code auto} - {@code shard} when sharded, else {@code lease} when a lease directory is set, else {@code seed}.</li>
+ * </ul>
+ *
+ * <p>Settings (system property / environment variable):</p>
+ * <ul>
+ *     <li>{@code bookstore.ids.source} / {@code IDS_SOURCE} - {@code auto}, {@code shard}, {@code lease} or
+ *     {@code seed} (default auto)</li>
+ *     <li>{@code bookstore.ids.leaseDir} / {@code IDS_LEASE_DIR} - shared directory for range leases</li>
+ *     <li>{@code bookstore.ids.leaseTtlMinutes} / {@code IDS_LEASE_TTL_MINUTES} - age after which an unrenewed lease
+ *     is taken over (default 60)</li>
+ *     <li>{@code bookstore.ids.seed} / {@code IDS_SEED} - seed picking the range (default random)</li>
+ *     <li>{@code bookstore.ids.rangeSize} / {@code IDS_RANGE_SIZE} - ids per range (default 4194304)</li>
+ *     <li>{@code bookstore.ids.blockSize} / {@code IDS_BLOCK_SIZE} - ids a stripe takes at a time (default 64)</li>
+ * </ul>
+ */
+@Slf4j
+public final class IdAllocator {
+
+    private static final int FIRST_ID = 1_000_000;
+    private static final int END_ID = 900_000_000;
+
+    private static final int RANGE_SIZE =
+            Math.max(1, Config.getInt("bookstore.ids.rangeSize", "IDS_RANGE_SIZE", 1 << 22));
+    private static final int BLOCK_SIZE =
+            Math.clamp(Config.getInt("bookstore.ids.blockSize", "IDS_BLOCK_SIZE", 64), 1, RANGE_SIZE);
+    private static final int RANGES = (END_ID - FIRST_ID) / RANGE_SIZE;
+
+    private static final Stripe[] STRIPES = stripes();
+    private static final LongAdder BLOCKS = new LongAdder();
+    private static final List<Integer> RESERVED = new ArrayList<>();
+
+    private static volatile RangeSource source;
+    private static volatile Range range;
+
+    private IdAllocator() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Returns the next id of this process.
+     *
+     * @return an id no other thread or process configured alike has been or will be given
+     * @throws IllegalStateException if every range this process may reserve is used up
+     */
+    public static int next() {
+        // Thread ids are sequential; the multiplication spreads them over the stripes
+        Stripe stripe = STRIPES[(int) (Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L >>> 32) & (STRIPES.length - 1)];
+        while (true) {
+            long state = stripe.state.get();
+            int next = (int) (state >>> 32);
+            if (next < (int) state) {
+                if (stripe.state.compareAndSet(state, state + (1L << 32))) {
+                    return next;
+                }
+            } else {
+                refill(stripe);
+            }
+        }
+    }
+
+    /**
+     * Returns how this process picks its ranges and how much of them it used.
+     *
+     * @return allocation statistics
+     */
+    public static synchronized IdStats stats() {
+        return new IdStats(source == null ? "none" : source.describe(), List.copyOf(RESERVED), BLOCKS.sum(), BLOCK_SIZE);
+    }
+
+    /**
+     * Ranges reserved by this process and blocks handed to its stripes.
+     *
+     * @param source    how ranges are picked
+     * @param ranges    indexes of the reserved ranges, in order
+     * @param blocks    blocks taken by stripes
+     * @param blockSize ids per block
+     */
+    public record IdStats(String source, List<Integer> ranges, long blocks, int blockSize) {
+
+        @Override
+        public String toString() {
+            return String.format("%s, ranges %s of %d ids, %d blocks of %d", source, ranges, RANGE_SIZE, blocks, blockSize);
+        }
+    }
+
+    private static void refill(Stripe stripe) {
+        stripe.lock.lock();
+        try {
+            long state = stripe.state.get();
+            if ((int) (state >>> 32) < (int) state) {
+                // Refilled by another thread while this one waited
+                return;
+            }
+            while (true) {
+                Range current = range != null ? range : advance(null);
+                int start = current.cursor.getAndAdd(BLOCK_SIZE);
+                if (start >= 0 && start < current.end) {
+                    stripe.state.set((long) start << 32 | Math.min(start + BLOCK_SIZE, current.end));
+                    BLOCKS.increment();
+                    current.source.renew();
+                    return;
+                }
+                advance(current);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static Stripe[] stripes() {
+        Stripe[] stripes = new Stripe[Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1];
+        Arrays.setAll(stripes, i -> new Stripe());
+        return stripes;
+    }
+
+    /**
+     * Reserves the next range once the given one is used up; threads that lost the race pick up the new one.
+     */
+    private static synchronized Range advance(Range exhausted) {
+        if (range != exhausted) {
+            return range;
+        }
+        if (source == null) {
+            source = RangeSource.configured();
+        }
+        int index = source.nextRange();
+        if (index < 0 || index >= RANGES) {
+            throw new IllegalStateException("No id range left for " + source.describe() + ": " + RANGES
+                    + " ranges of " + RANGE_SIZE + " ids; lower bookstore.ids.rangeSize");
+        }
+        RESERVED.add(index);
+        int start = FIRST_ID + index * RANGE_SIZE + source.startOffset();
+        int end = FIRST_ID + (index + 1) * RANGE_SIZE;
+        log.info("Ids {} to {} reserved ({})", start, end - 1, source.describe());
+        range = new Range(source, new AtomicInteger(start), end);
+        return range;
+    }
+
+    /**
+     * A block of ids: {@code next} up to, not including, {@code end}, kept in the high and low half of one long so
+     * both are read and advanced together. The lock only serializes refills.
+     */
+    private static final class Stripe {
+        private final AtomicLong state = new AtomicLong();
+        private final ReentrantLock lock = new ReentrantLock();
+    }
+
+    private record Range(RangeSource source, AtomicInteger cursor, int end) {
+    }
+
+    /**
+     * Where a process gets its ranges from.
+     */
+    private sealed interface RangeSource {
+
+        /**
+         * @return index of the next range this process owns, or -1 if there is none left
+         */
+        int nextRange();
+
+        String describe();
+
+        /**
+         * @return ids to skip at the start of a newly reserved range
+         */
+        default int startOffset() {
+            return 0;
+        }
+
+        default void renew() {
+        }
+
+        static RangeSource configured() {
+            String shard = Config.get("bookstore.shard", "SHARD", "").trim();
+            String leaseDir = Config.get("bookstore.ids.leaseDir", "IDS_LEASE_DIR", "").trim();
+            String kind = Config.get("bookstore.ids.source", "IDS_SOURCE", "auto").trim();
+            if ("auto".equals(kind)) {
+                kind = !shard.isEmpty() ? "shard" : !leaseDir.isEmpty() ? "lease" : "seed";
+            }
+            return switch (kind) {
+                case "shard" -> ShardSource.parse(shard);
+                case "lease" -> new LeaseSource(Path.of(leaseDir.isEmpty() ? "build/id-leases" : leaseDir),
+                        Duration.ofMinutes(Config.getLong("bookstore.ids.leaseTtlMinutes", "IDS_LEASE_TTL_MINUTES", 60)));
+                case "seed" -> new SeedSource(Config.get("bookstore.ids.seed", "IDS_SEED", "").trim());
+                default -> throw new IllegalArgumentException(
+                        "Unknown id source: " + kind + " (expected auto, shard, lease or seed)");
+            };
+        }
+    }
+
+    /**
+     * Shard {@code i} of {@code N} owns every {@code N}-th range, starting at {@code i-1}.
+     */
+    private record ShardSource(int shard, int shards, AtomicInteger taken) implements RangeSource {
+
+        static ShardSource parse(String spec) {
+            String[] parts = spec.split("/");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Id source shard needs bookstore.shard as i/N, e.g. 2/3, but was: " + spec);
+            }
+            int shard = Integer.parseInt(parts[0].trim());
+            int shards = Integer.parseInt(parts[1].trim());
+            if (shards < 1 || shard < 1 || shard > shards) {
+                throw new IllegalArgumentException("Shard " + spec + " is out of range: expected 1 <= i <= N");
+            }
+            return new ShardSource(shard, shards, new AtomicInteger());
+        }
+
+        @Override
+        public int nextRange() {
+            return shard - 1 + taken.getAndIncrement() * shards;
+        }
+
+        @Override
+        public String describe() {
+            return "shard " + shard + "/" + shards;
+        }
+    }
+
+    /**
+     * Starts at a range derived from the seed and moves on to the following ones. Without a seed both the first
+     * range and the step to the next are random, and ids start at a random block within each range: two processes
+     * that picked the same range only meet if one catches up with the other, and part ways at the next range
+     * instead of colliding in lock-step.
+     */
+    private record SeedSource(String seed, int first, int stride, AtomicInteger taken) implements RangeSource {
+
+        SeedSource(String seed) {
+            this(seed, Math.floorMod(seed.isEmpty() ? ThreadLocalRandom.current().nextInt() : mix(seed.hashCode()), RANGES),
+                    seed.isEmpty() ? randomStride() : 1, new AtomicInteger());
+        }
+
+        private static int mix(int hash) {
+            // Spread nearby seeds (1, 2, 3...) over the whole id space
+            hash *= 0x9E3779B9;
+            return hash ^ hash >>> 16;
+        }
+
+        /**
+         * A step coprime with the number of ranges, so stepping visits every range once before repeating.
+         */
+        private static int randomStride() {
+            if (RANGES < 2) {
+                return 1;
+            }
+            while (true) {
+                int stride = ThreadLocalRandom.current().nextInt(1, RANGES);
+                if (gcd(stride, RANGES) == 1) {
+                    return stride;
+                }
+            }
+        }
+
+        private static int gcd(int a, int b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+
+        @Override
+        public int nextRange() {
+            int taken = this.taken.getAndIncrement();
+            return taken < RANGES ? (int) ((first + (long) taken * stride) % RANGES) : -1;
+        }
+
+        @Override
+        public int startOffset() {
+            // Within the first half, so at least half of the range is left to use
+            return seed.isEmpty() ? ThreadLocalRandom.current().nextInt(RANGE_SIZE / 2 / BLOCK_SIZE + 1) * BLOCK_SIZE : 0;
+        }
+
+        @Override
+        public String describe() {
+            return seed.isEmpty() ? "random seed" : "seed " + seed;
+        }
+    }
+
+    /**
+     * Owns a range by creating its lease file; files are renewed while ids are handed out and deleted on exit.
+     */
+    private static final class LeaseSource implements RangeSource {
+
+        private static final Duration RENEW_EVERY = Duration.ofMinutes(1);
+
+        private final Path directory;
+        private final Duration ttl;
+        private final String owner;
+        private final List<Path> held = new ArrayList<>();
+        private volatile long renewedAt = System.nanoTime();
+
+        LeaseSource(Path directory, Duration ttl) {
+            this.directory = directory;
+            this.ttl = ttl;
+            // Pid and host alone repeat across containers; the suffix tells two processes apart in any case
+            this.owner = ProcessHandle.current().pid() + "@" + hostName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create the id lease directory " + directory, e);
+            }
+            Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().name("id-lease-release").unstarted(this::release));
+        }
+
+        @Override
+        public synchronized int nextRange() {
+            // Start the scan at a random range, so processes starting together do not all fight over range 0
+            int offset = ThreadLocalRandom.current().nextInt(RANGES);
+            for (int i = 0; i < RANGES; i++) {
+                int index = (offset + i) % RANGES;
+                if (acquire(leaseFile(index))) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String describe() {
+            return "lease in " + directory;
+        }
+
+        @Override
+        public void renew() {
+            long now = System.nanoTime();
+            if (now - renewedAt < RENEW_EVERY.toNanos()) {
+                return;
+            }
+            renewedAt = now;
+            synchronized (this) {
+                FileTime time = FileTime.from(Instant.now());
+                for (Path lease : held) {
+                    try {
+                        Files.setLastModifiedTime(lease, time);
+                    } catch (IOException e) {
+                        log.warn("Could not renew id lease {}: {}", lease, e.getMessage());
+                    }
+                }
+            }
+        }
+
+        private Path leaseFile(int index) {
+            return directory.resolve("range-" + index + ".lease");
+        }
+
+        private boolean acquire(Path lease) {
+            try {
+                Files.writeString(Files.createFile(lease), owner, StandardCharsets.UTF_8);
+                held.add(lease);
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                return takeOverIfExpired(lease);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create id lease " + lease, e);
+            }
+        }
+
+        /**
+         * Claims an expired lease. A process first creates the lease's claim file, which only one can do at a time,
+         * and checks the lease again while holding it: a lease renewed or taken over since it was first seen is left
+         * alone. A claim left behind by a process that died while holding it is cleared once it is older than the
+         * lease time-to-live.
+         */
+        private boolean takeOverIfExpired(Path lease) {
+            if (!expired(lease)) {
+                return false;
+            }
+            Path claim = lease.resolveSibling(lease.getFileName() + ".claim");
+            try {
+                Files.createFile(claim);
+            } catch (FileAlreadyExistsException e) {
+                if (expired(claim)) {
+                    deleteQuietly(claim);
+                }
+                return false;
+            } catch (IOException e) {
+                log.warn("Could not claim id lease {}: {}", lease, e.getMessage());
+                return false;
+            }
+            try {
+                if (!expired(lease)) {
+                    return false;
+                }
+                String previous = Files.readString(lease, StandardCharsets.UTF_8);
+                Files.writeString(lease, owner, StandardCharsets.UTF_8, StandardOpenOption.TRUNCATE_EXISTING);
+                held.add(lease);
+                log.info("Took over expired id lease {} (held by {})", lease, previous);
+                return true;
+            } catch (NoSuchFileException e) {
+                // Released in the meantime; the range is free again, but another process may be creating it now
+                return false;
+            } catch (IOException e) {
+                log.warn("Could not take over id lease {}: {}", lease, e.getMessage());
+                return false;
+            } finally {
+                deleteQuietly(claim);
+            }
+        }
+
+        private boolean expired(Path file) {
+            try {
+                return Files.getLastModifiedTime(file).toInstant().plus(ttl).isBefore(Instant.now());
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Deletes the leases still written by this process; a lease taken over after this process stopped renewing
+         * it belongs to the new owner.
+         */
+        private synchronized void release() {
+            for (Path lease : held) {
+                try {
+                    if (owner.equals(Files.readString(lease, StandardCharsets.UTF_8))) {
+                        Files.delete(lease);
+                    }
+                } catch (NoSuchFileException e) {
+                    // Already gone
+                } catch (IOException e) {
+                    log.warn("Could not release id lease {}: {}", lease, e.getMessage());
+                }
+            }
+            held.clear();
+        }
+
+        private static void deleteQuietly(Path file) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete {}: {}", file, e.getMessage());
+            }
+        }
+
+        private static String hostName() {
+            try {
+                return InetAddress.getLocalHost().getHostName();
+            } catch (IOException e) {
+                return "unknown-host";
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package eu.delimata.bookstore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new RingBuffer<>(1).capacity()).isEqualTo(2);
+        assertThat(new RingBuffer<>(8).capacity()).isEqualTo(8);
+        assertThat(new RingBuffer<>(9).capacity()).isEqualTo(16);
+    }
+
+    @Test
+    void failsFastWhenFullOrEmpty() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        assertThat(buffer.poll()).isNull();
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+    }
+
+    @Test
+    void keepsFifoOrderAcrossManyWrapArounds() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 1_000; round++) {
+            // Fill to a varying level so head and tail cross the end of the array at every offset
+            int batch = 1 + round % 4;
+            for (int i = 0; i < batch; i++) {
+                assertThat(buffer.offer(next++)).isTrue();
+            }
+            for (int i = 0; i < batch; i++) {
+                assertThat(buffer.poll()).isEqualTo(expected++);
+            }
+            assertThat(buffer.poll()).isNull();
+        }
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void deliversEveryElementExactlyOnceToConcurrentConsumers() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 20_000;
+        RingBuffer<Long> buffer = new RingBuffer<>(8);
+        AtomicInteger remaining = new AtomicInteger(producers * perProducer);
+
+        List<Future<List<Long>>> consumed = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers + consumers)) {
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                executor.submit(() -> {
+                    for (long i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(producer << 32 | i)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+            for (int c = 0; c < consumers; c++) {
+                consumed.add(executor.submit(() -> {
+                    List<Long> taken = new ArrayList<>();
+                    while (remaining.get() > 0) {
+                        Long element = buffer.poll();
+                        if (element == null) {
+                            Thread.yield();
+                        } else {
+                            taken.add(element);
+                            remaining.decrementAndGet();
+                        }
+                    }
+                    return taken;
+                }));
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        }
+
+        BitSet[] seen = new BitSet[producers];
+        for (int p = 0; p < producers; p++) {
+            seen[p] = new BitSet(perProducer);
+        }
+        for (Future<List<Long>> future : consumed) {
+            long[] lastByProducer = {-1, -1, -1, -1};
+            for (long element : future.get()) {
+                int producer = (int) (element >>> 32);
+                int index = (int) element;
+                assertThat(seen[producer].get(index)).as("element %d of producer %d taken twice", index, producer).isFalse();
+                seen[producer].set(index);
+                // One consumer sees the elements of one producer in the order they were offered
+                assertThat(index).isGreaterThan((int) lastByProducer[producer]);
+                lastByProducer[producer] = index;
+            }
+        }
+        for (BitSet producer : seen) {
+            assertThat(producer.cardinality()).isEqualTo(perProducer);
+        }
+        assertThat(buffer.poll()).isNull();
+    }
+}
@@ -1,7 +1,6 @@
 package eu.delimata.bookstore.utils;
 
 import com.github.javafaker.Faker;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class for generating test data for bookstore tests.
@@ -11,19 +10,17 @@ public final class TestData {
 
     private static final Faker FAKER = new Faker();
 
-    private static final AtomicInteger SEQ = new AtomicInteger(1);
-
     private TestData() {
         // Utility class - prevent instantiation
     }
 
     /**
-     * Generates a unique ID for testing purposes.
+     * Generates a unique ID for testing purposes, also across processes (see {@link IdAllocator}).
      *
      * @return unique integer ID
      */
     public static int uniqueId() {
-        return (int)(System.currentTimeMillis() & 0x7FFFFFFF) + SEQ.getAndIncrement();
+        return IdAllocator.next();
     }
 
     /**
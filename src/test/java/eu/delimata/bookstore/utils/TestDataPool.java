@@ -0,0 +1,158 @@
+package eu.delimata.bookstore.utils;
+
+import com.github.javafaker.Faker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Pool of pre-generated random test data, one lock-free ring buffer per field.
+ * A background thread owns its own {@link Faker}, fills the buffers at start-up and tops them up
+ * once they drop below a quarter of their capacity, so steps take values without touching Faker.
+ * If a buffer runs dry the value is generated on demand through {@link TestData} and counted.
+ *
+ * <p>Settings: {@code bookstore.data.pool.enabled} / {@code DATA_POOL_ENABLED} (default true) and
+ * {@code bookstore.data.pool.size} / {@code DATA_POOL_SIZE} - values kept per field (default 256).</p>
+ */
+@Slf4j
+public final class TestDataPool {
+
+    /**
+     * Pooled field types with their background generator and on-demand fallback.
+     */
+    public enum Field {
+        TITLE(faker -> faker.book().title(), TestData::randomTitle),
+        DESCRIPTION(faker -> faker.lorem().sentence(), TestData::randomDescription),
+        EXCERPT(faker -> faker.lorem().paragraph(), TestData::randomExcerpt),
+        FIRST_NAME(faker -> faker.name().firstName(), TestData::randomFirstName),
+        LAST_NAME(faker -> faker.name().lastName(), TestData::randomLastName);
+
+        private final Function<Faker, String> generator;
+        private final Supplier<String> onDemand;
+
+        Field(Function<Faker, String> generator, Supplier<String> onDemand) {
+            this.generator = generator;
+            this.onDemand = onDemand;
+        }
+    }
+
+    private static final boolean ENABLED = Config.getBoolean("bookstore.data.pool.enabled", "DATA_POOL_ENABLED", true);
+    private static final int SIZE = Config.getInt("bookstore.data.pool.size", "DATA_POOL_SIZE", 256);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static final Map<Field, RingBuffer<String>> BUFFERS = new EnumMap<>(Field.class);
+    private static final Map<Field, LongAdder> SERVED = new EnumMap<>(Field.class);
+    private static final Map<Field, LongAdder> ON_DEMAND = new EnumMap<>(Field.class);
+
+    private static volatile Thread refiller;
+
+    static {
+        for (Field field : Field.values()) {
+            BUFFERS.put(field, new RingBuffer<>(SIZE));
+            SERVED.put(field, new LongAdder());
+            ON_DEMAND.put(field, new LongAdder());
+        }
+    }
+
+    private TestDataPool() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Starts the background generator once per JVM; later calls are no-ops.
+     */
+    public static synchronized void start() {
+        if (ENABLED && refiller == null) {
+            refiller = Thread.ofPlatform()
+                    .name("test-data-pool")
+                    .daemon(true)
+                    .start(TestDataPool::refill);
+            log.info("Test data pool started: {} values per field", BUFFERS.get(Field.TITLE).capacity());
+        }
+    }
+
+    /**
+     * Takes a value for the given field, generating it on demand only if the pool is empty.
+     *
+     * @param field field type
+     * @return random value
+     */
+    public static String next(Field field) {
+        if (!ENABLED) {
+            ON_DEMAND.get(field).increment();
+            return field.onDemand.get();
+        }
+        if (refiller == null) {
+            start();
+        }
+
+        RingBuffer<String> buffer = BUFFERS.get(field);
+        String value = buffer.poll();
+        if (buffer.size() < buffer.capacity() / 4) {
+            LockSupport.unpark(refiller);
+        }
+        if (value != null) {
+            SERVED.get(field).increment();
+            return value;
+        }
+        ON_DEMAND.get(field).increment();
+        return field.onDemand.get();
+    }
+
+    public static String title() {
+        return next(Field.TITLE);
+    }
+
+    public static String description() {
+        return next(Field.DESCRIPTION);
+    }
+
+    public static String excerpt() {
+        return next(Field.EXCERPT);
+    }
+
+    public static String firstName() {
+        return next(Field.FIRST_NAME);
+    }
+
+    public static String lastName() {
+        return next(Field.LAST_NAME);
+    }
+
+    /**
+     * Returns how many values were served from the pool versus generated on demand.
+     *
+     * @return counters per field, e.g. {@code TITLE -> served=120, onDemand=0}
+     */
+    public static Map<Field, String> stats() {
+        Map<Field, String> stats = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            stats.put(field, "served=" + SERVED.get(field).sum() + ", onDemand=" + ON_DEMAND.get(field).sum());
+        }
+        return stats;
+    }
+
+    private static void refill() {
+        Faker faker = new Faker();
+        while (!Thread.currentThread().isInterrupted()) {
+            // One value per field per round, so every field becomes available early
+            boolean added;
+            do {
+                added = false;
+                for (Field field : Field.values()) {
+                    RingBuffer<String> buffer = BUFFERS.get(field);
+                    if (buffer.size() < buffer.capacity()) {
+                        added |= buffer.offer(field.generator.apply(faker));
+                    }
+                }
+            } while (added);
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+}
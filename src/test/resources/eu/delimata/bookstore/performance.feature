@@ -0,0 +1,29 @@
+@performance
+Feature: Response times of the bookstore
+  In order to browse the bookstore without waiting,
+  as a user I want book and author information to be returned quickly.
+
+  Background:
+    Given I have valid permissions to manage the bookstore
+
+  @books @read
+  Scenario: Book details respond quickly
+    Given a book exists in the bookstore
+    When I open the details of that book
+    Then the response arrived within 2000 ms
+    And the book details respond within 1000 ms at p95 over 20 calls
+
+  @books @list
+  Scenario: Book list responds quickly
+    Then the book list responds within 2000 ms at p95 over 10 calls
+
+  @authors @read
+  Scenario: Author details respond quickly
+    Given an author exists in the bookstore
+    When I open the details of that author
+    Then the response arrived within 2000 ms
+    And the author details respond within 1000 ms at p95 over 20 calls
+
+  @authors @list
+  Scenario: Author list responds quickly
+    Then the author list responds within 2000 ms at p95 over 10 calls